@@ -0,0 +1,105 @@
+package com.example.demo.bench;
+
+import com.example.demo.dto.VerifiedToken;
+import com.example.demo.service.JwtService;
+import com.example.demo.service.RevokedTokenStore;
+import com.example.demo.utils.JwtAuthFilter;
+import com.example.demo.utils.RevocationProperties;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.val;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.web.authentication.WebAuthenticationDetailsSource;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.time.Clock;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class JwtAuthFilterBenchmark {
+    private static final FilterChain CHAIN = (request, response) -> { };
+
+    private OncePerRequestFilter cached;
+    private OncePerRequestFilter threeParses;
+    private String authorization;
+
+    @Setup
+    public void setUp() {
+        val jwtService = JwtServiceBenchmark.jwtService(
+                new RevokedTokenStore(new RevocationProperties(), null, event -> { }, Clock.systemUTC()));
+        cached = new JwtAuthFilter(jwtService);
+        threeParses = new ThreeParseJwtAuthFilter(jwtService);
+        authorization = "Bearer " + jwtService.generateAccessToken("alice");
+    }
+
+    @Benchmark
+    public Authentication filterCached() throws ServletException, IOException {
+        return authenticate(cached);
+    }
+
+    @Benchmark
+    public Authentication filterThreeParses() throws ServletException, IOException {
+        return authenticate(threeParses);
+    }
+
+    private Authentication authenticate(final OncePerRequestFilter filter) throws ServletException, IOException {
+        val request = new MockHttpServletRequest("GET", "/api/tasks");
+        request.addHeader(HttpHeaders.AUTHORIZATION, authorization);
+        try {
+            filter.doFilter(request, new MockHttpServletResponse(), CHAIN);
+            return SecurityContextHolder.getContext().getAuthentication();
+        } finally {
+            SecurityContextHolder.clearContext();
+        }
+    }
+
+    private static final class ThreeParseJwtAuthFilter extends OncePerRequestFilter {
+        private final JwtService jwtService;
+
+        private ThreeParseJwtAuthFilter(final JwtService jwtService) {
+            this.jwtService = jwtService;
+        }
+
+        @Override
+        protected void doFilterInternal(final HttpServletRequest request, final HttpServletResponse response,
+                                        final FilterChain chain) throws ServletException, IOException {
+            val header = request.getHeader(HttpHeaders.AUTHORIZATION);
+            if (header != null && header.startsWith("Bearer ")) {
+                val token = header.substring(7);
+                val valid = jwtService.verify(token).isPresent();
+                val refresh = jwtService.verify(token).map(VerifiedToken::isRefresh).orElse(false);
+                if (valid && !refresh && !jwtService.isAccessRevoked(token)) {
+                    val username = jwtService.verify(token).map(VerifiedToken::subject).orElse(null);
+                    val auth = new UsernamePasswordAuthenticationToken(username, null, List.of());
+                    auth.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
+                    SecurityContextHolder.getContext().setAuthentication(auth);
+                }
+            }
+            chain.doFilter(request, response);
+        }
+    }
+}
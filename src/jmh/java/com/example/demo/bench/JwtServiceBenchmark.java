@@ -0,0 +1,82 @@
+package com.example.demo.bench;
+
+import com.example.demo.dto.VerifiedToken;
+import com.example.demo.service.JwtService;
+import com.example.demo.service.RevokedTokenStore;
+import com.example.demo.utils.JwtProperties;
+import com.example.demo.utils.RevocationProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import lombok.val;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.Clock;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class JwtServiceBenchmark {
+    private JwtService jwtService;
+    private String accessToken;
+    private String refreshToken;
+
+    @Setup
+    public void setUp() {
+        jwtService = jwtService(new RevokedTokenStore(new RevocationProperties(), null, event -> { }, Clock.systemUTC()));
+        accessToken = jwtService.generateAccessToken("alice");
+        refreshToken = jwtService.generateRefreshToken("alice");
+    }
+
+    @Benchmark
+    public String generateAccessToken() {
+        return jwtService.generateAccessToken("alice");
+    }
+
+    @Benchmark
+    public String generateRefreshToken() {
+        return jwtService.generateRefreshToken("alice");
+    }
+
+    @Benchmark
+    public Optional<VerifiedToken> verify() {
+        return jwtService.verify(accessToken);
+    }
+
+    @Benchmark
+    public Optional<VerifiedToken> verifyAccessCached() {
+        return jwtService.verifyAccess(accessToken);
+    }
+
+    @Benchmark
+    public Optional<VerifiedToken> verifyRefresh() {
+        return jwtService.verifyRefresh(refreshToken);
+    }
+
+    @Benchmark
+    public Optional<VerifiedToken> verifyForged() {
+        return jwtService.verify(accessToken.substring(0, accessToken.length() - 4) + "AAAA");
+    }
+
+    static JwtService jwtService(final RevokedTokenStore store) {
+        val props = new JwtProperties()
+                .setSecret("benchmark_secret_that_is_long_enough_for_hs256")
+                .setAccessExpirationMinutes(15)
+                .setRefreshExpirationDays(7);
+        val service = new JwtService(props, store, new SimpleMeterRegistry());
+        service.init();
+        return service;
+    }
+}
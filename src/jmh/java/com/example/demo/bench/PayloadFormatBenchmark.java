@@ -0,0 +1,117 @@
+package com.example.demo.bench;
+
+import com.example.demo.dto.SubtaskResponse;
+import com.example.demo.dto.TaskResponse;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import lombok.val;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class PayloadFormatBenchmark {
+    private static final TypeReference<List<TaskResponse>> TASK_LIST = new TypeReference<>() { };
+
+    @Param({"json", "cbor", "smile"})
+    public String format;
+
+    @Param({"100", "1000"})
+    public int tasks;
+
+    private ObjectWriter writer;
+    private ObjectReader reader;
+    private List<TaskResponse> responses;
+    private byte[] payload;
+
+    @Setup
+    public void setUp() throws IOException {
+        val json = JsonMapper.builder()
+                .findAndAddModules()
+                .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+                .build();
+        val mapper = switch (format) {
+            case "cbor" -> json.copyWith(new CBORFactory());
+            case "smile" -> json.copyWith(new SmileFactory());
+            default -> json;
+        };
+        writer = mapper.writerFor(TASK_LIST);
+        reader = mapper.readerFor(TASK_LIST);
+        responses = responses(tasks);
+        payload = writer.writeValueAsBytes(responses);
+    }
+
+    @Benchmark
+    public byte[] encode(final PayloadSize size) throws IOException {
+        val bytes = writer.writeValueAsBytes(responses);
+        size.bytes = bytes.length;
+        return bytes;
+    }
+
+    @Benchmark
+    public List<TaskResponse> decode() throws IOException {
+        return reader.readValue(payload);
+    }
+
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    @State(Scope.Thread)
+    public static class PayloadSize {
+        public long bytes;
+
+        @Setup(Level.Iteration)
+        public void reset() {
+            bytes = 0;
+        }
+    }
+
+    private static List<TaskResponse> responses(final int count) {
+        val today = LocalDate.of(2025, 1, 1);
+        val responses = new ArrayList<TaskResponse>(count);
+        for (int i = 0; i < count; i++) {
+            val subtasks = new ArrayList<SubtaskResponse>(3);
+            for (int j = 0; j < 3; j++) {
+                subtasks.add(SubtaskResponse.builder()
+                        .id(UUID.randomUUID())
+                        .text("Subtask " + j)
+                        .completed(j % 2 == 0)
+                        .build());
+            }
+            responses.add(TaskResponse.builder()
+                    .id(UUID.randomUUID())
+                    .title("Task " + i)
+                    .completed(i % 3 == 0)
+                    .createdAt(today.plusDays(i % 30))
+                    .deadline(today.plusDays(i % 60))
+                    .subtasks(subtasks)
+                    .build());
+        }
+        return responses;
+    }
+}
@@ -0,0 +1,61 @@
+package com.example.demo.bench;
+
+import com.example.demo.service.JwtService;
+import com.example.demo.service.RevokedTokenStore;
+import com.example.demo.utils.RevocationProperties;
+import com.example.demo.utils.TokenDigests;
+import lombok.val;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.concurrent.TimeUnit;
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class RevokedTokenBenchmark {
+    @Param({"1000", "100000", "1000000"})
+    public int revoked;
+
+    private JwtService jwtService;
+    private String revokedToken;
+    private String activeToken;
+
+    @Setup
+    public void setUp() {
+        val store = new RevokedTokenStore(
+                new RevocationProperties().setMaxEntries(revoked), null, event -> { }, Clock.systemUTC());
+        val expiresAt = Instant.now().plus(Duration.ofHours(1));
+        for (int i = 0; i < revoked; i++) {
+            store.revoke(TokenDigests.sha256Hex("revoked-" + i), expiresAt);
+        }
+        jwtService = JwtServiceBenchmark.jwtService(store);
+        revokedToken = "revoked-" + revoked / 2;
+        activeToken = jwtService.generateAccessToken("alice");
+    }
+
+    @Benchmark
+    public boolean isAccessRevokedHit() {
+        return jwtService.isAccessRevoked(revokedToken);
+    }
+
+    @Benchmark
+    public boolean isAccessRevokedMiss() {
+        return jwtService.isAccessRevoked(activeToken);
+    }
+}
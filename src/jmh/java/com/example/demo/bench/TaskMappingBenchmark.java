@@ -0,0 +1,90 @@
+package com.example.demo.bench;
+
+import com.example.demo.dto.TaskResponse;
+import com.example.demo.mapper.TaskMapper;
+import com.example.demo.mapper.TaskMapperImpl;
+import com.example.demo.model.Subtask;
+import com.example.demo.model.Task;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import lombok.val;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class TaskMappingBenchmark {
+    private static final int SUBTASKS = 3;
+
+    @Param({"10", "1000", "10000"})
+    public int tasks;
+
+    private TaskMapper taskMapper;
+    private ObjectWriter writer;
+    private List<Task> entities;
+    private List<TaskResponse> responses;
+
+    @Setup
+    public void setUp() {
+        taskMapper = new TaskMapperImpl();
+        writer = JsonMapper.builder()
+                .findAndAddModules()
+                .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+                .build()
+                .writerFor(new TypeReference<List<TaskResponse>>() { });
+        entities = new ArrayList<>(tasks);
+        val today = LocalDate.of(2025, 1, 1);
+        for (int i = 0; i < tasks; i++) {
+            val subtasks = new ArrayList<Subtask>(SUBTASKS);
+            for (int j = 0; j < SUBTASKS; j++) {
+                subtasks.add(Subtask.builder()
+                        .id(UUID.randomUUID())
+                        .text("Subtask " + j)
+                        .completed(j % 2 == 0)
+                        .build());
+            }
+            entities.add(Task.builder()
+                    .id(UUID.randomUUID())
+                    .title("Task " + i)
+                    .completed(i % 3 == 0)
+                    .createdAt(today.plusDays(i % 30))
+                    .deadline(today.plusDays(i % 60))
+                    .ldapUid("alice")
+                    .subtasks(subtasks)
+                    .build());
+        }
+        responses = taskMapper.toResponseList(entities);
+    }
+
+    @Benchmark
+    public List<TaskResponse> toResponseList() {
+        return taskMapper.toResponseList(entities);
+    }
+
+    @Benchmark
+    public byte[] serializeResponses() throws JsonProcessingException {
+        return writer.writeValueAsBytes(responses);
+    }
+}
@@ -1,8 +1,11 @@
 package com.example.demo.controller;
 
 import com.example.demo.dto.LoginRequest;
+import com.example.demo.dto.VerifiedToken;
 import com.example.demo.service.JwtService;
 import com.example.demo.service.RefreshTokenService;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import lombok.val;
 import lombok.RequiredArgsConstructor;
 import lombok.experimental.FieldDefaults;
@@ -19,6 +22,7 @@ import jakarta.servlet.http.HttpServletRequest;
 import org.springframework.http.ResponseCookie;
 
 import java.util.Map;
+import java.util.Optional;
 
 @RestController
 @RequestMapping("/auth")
@@ -29,13 +33,16 @@ public class AuthController {
     AuthenticationManager authManager;
     JwtService jwtService;
     RefreshTokenService refreshTokenService;
+    MeterRegistry meterRegistry;
 
     @PostMapping("/login")
     public ResponseEntity<?> login(final @RequestBody LoginRequest req) {
+        val bind = Timer.start(meterRegistry);
         try {
             authManager.authenticate(
                     new UsernamePasswordAuthenticationToken(req.username(), req.password())
             );
+            bind.stop(bindTimer("success"));
 
             val access = jwtService.generateAccessToken(req.username());
             val saved = refreshTokenService.createOrReplace(req.username());
@@ -51,6 +58,7 @@ public class AuthController {
                     .header(HttpHeaders.SET_COOKIE, cookie.toString())
                     .body(Map.of("accessToken", access));
         } catch (final AuthenticationException thrown) {
+            bind.stop(bindTimer("failure"));
             if (log.isWarnEnabled()) {
                 log.warn("Ошибка аутентификации пользователя: {}", req.username());
             }
@@ -72,14 +80,14 @@ public class AuthController {
                     .body(Map.of("error", "Неверный или просроченный refresh token"));
         }
 
-        val username = jwtService.extractUsername(refresh);
-
-        if (!stored.get().getUsername().equals(username)) {
+        val username = stored.get().getUsername();
+        val rotated = refreshTokenService.rotate(username, refresh);
+        if (rotated.isEmpty()) {
             return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
-                    .body(Map.of("error", "Несовпадение refresh token"));
+                    .body(Map.of("error", "Refresh token уже использован"));
         }
 
-        val newRefresh = refreshTokenService.rotate(username, refresh).getToken();
+        val newRefresh = rotated.get().getToken();
         val cookie = ResponseCookie.from("refreshToken", newRefresh)
                 .httpOnly(true)
                 .secure(true)
@@ -101,14 +109,18 @@ public class AuthController {
         String username = null;
         if (authHeader != null && authHeader.startsWith("Bearer ")) {
             val accessToken = authHeader.substring(7);
-            if (jwtService.isTokenValid(accessToken) && !jwtService.isRefreshToken(accessToken)) {
-                username = jwtService.extractUsername(accessToken);
+            val verified = jwtService.verifyAccess(accessToken);
+            if (verified.isPresent()) {
+                username = verified.get().subject();
                 jwtService.revokeAccessToken(accessToken);
             }
         }
         
-        if (refresh != null && jwtService.isTokenValid(refresh) && jwtService.isRefreshToken(refresh)) {
-            if (username != null && !jwtService.extractUsername(refresh).equals(username)) {
+        val verifiedRefresh = StringUtils.isBlank(refresh)
+                ? Optional.<VerifiedToken>empty()
+                : refreshTokenService.verify(refresh);
+        if (verifiedRefresh.isPresent()) {
+            if (username != null && !verifiedRefresh.get().subject().equals(username)) {
                 return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
                         .body(Map.of("error", "Несовпадение refresh token"));
             }
@@ -126,4 +138,11 @@ public class AuthController {
                 .header(HttpHeaders.SET_COOKIE, cookie.toString())
                 .body(Map.of("status", "выход выполнен"));
     }
+
+    private Timer bindTimer(final String outcome) {
+        return Timer.builder("auth.ldap.bind")
+                .tag("outcome", outcome)
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+    }
 }
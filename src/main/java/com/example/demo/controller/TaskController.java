@@ -1,21 +1,48 @@
 package com.example.demo.controller;
 
+import com.example.demo.dto.CalendarResponse;
+import com.example.demo.dto.ImportFormat;
+import com.example.demo.dto.PatchTaskDto;
+import com.example.demo.dto.TaskBatchOperation;
+import com.example.demo.dto.TaskBatchResult;
+import com.example.demo.dto.TaskChangesResponse;
 import com.example.demo.dto.TaskDto;
+import com.example.demo.dto.TaskImportResult;
+import com.example.demo.dto.TaskPageResponse;
+import com.example.demo.dto.TaskPageSnapshot;
 import com.example.demo.dto.TaskResponse;
 import com.example.demo.dto.UpdateTaskDto;
+import com.example.demo.service.TaskCalendarService;
+import com.example.demo.service.TaskEventBroker;
+import com.example.demo.service.TaskExportService;
+import com.example.demo.service.TaskImportService;
 import com.example.demo.service.TaskService;
+import com.example.demo.service.TaskSyncService;
 
 import lombok.val;
 import lombok.RequiredArgsConstructor;
 import lombok.experimental.FieldDefaults;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.InvalidMediaTypeException;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
 import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.List;
 import java.util.UUID;
+import java.util.zip.GZIPOutputStream;
 
 @RestController
 @RequestMapping("/api/tasks")
@@ -23,30 +50,166 @@ import java.util.UUID;
 @FieldDefaults(makeFinal = true)
 @Slf4j
 public class TaskController {
+    private static final String NDJSON = "application/x-ndjson";
+    private static final String CSV = "text/csv";
+    private static final List<MediaType> PAGE_FORMATS = List.of(MediaType.APPLICATION_JSON, MediaType.APPLICATION_CBOR,
+            new MediaType("application", "x-jackson-smile"));
+
     TaskService taskService;
+    TaskExportService taskExportService;
+    TaskImportService taskImportService;
+    TaskSyncService taskSyncService;
+    TaskEventBroker taskEventBroker;
+    TaskCalendarService taskCalendarService;
 
     @GetMapping
-    public List<TaskResponse> getTasks() {
+    public ResponseEntity<TaskPageResponse> getTasks(final @RequestParam(required = false) String cursor,
+                                                     final @RequestParam(defaultValue = "50") int limit,
+                                                     final @RequestHeader(value = HttpHeaders.ACCEPT, defaultValue = MediaType.ALL_VALUE) String accept) {
         if (log.isDebugEnabled()) {
             log.debug("Запрос на получение списка задач");
         }
-        return taskService.getUserTasks();
+        return withETag(taskService.getUserTasks(cursor, limit), accept);
+    }
+
+    @GetMapping("/changes")
+    public TaskChangesResponse getChanges(final @RequestParam(required = false) String since,
+                                          final Authentication authentication) {
+        if (log.isDebugEnabled()) {
+            log.debug("Запрос изменений задач с токеном {}", since);
+        }
+        return taskSyncService.changesSince(authentication.getName(), since);
+    }
+
+    @GetMapping("/calendar")
+    public CalendarResponse getCalendar(final @RequestParam LocalDate from,
+                                        final @RequestParam LocalDate to,
+                                        final Authentication authentication) {
+        if (log.isDebugEnabled()) {
+            log.debug("Запрос календаря задач с {} по {}", from, to);
+        }
+        return taskCalendarService.getCalendar(authentication.getName(), from, to);
+    }
+
+    @GetMapping(value = "/calendar", params = "expand=true")
+    public ResponseEntity<StreamingResponseBody> getExpandedCalendar(final @RequestParam LocalDate from,
+                                                                     final @RequestParam LocalDate to,
+                                                                     final Authentication authentication) {
+        TaskCalendarService.validateRange(from, to);
+        val username = authentication.getName();
+        log.info("Выгрузка календаря задач с {} по {} для пользователя {}", from, to, username);
+        StreamingResponseBody body = out -> taskCalendarService.writeExpandedCalendar(username, from, to, out);
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(body);
+    }
+
+    @GetMapping("/search")
+    public TaskPageResponse searchTasks(final @RequestParam String q,
+                                        final @RequestParam(required = false) String cursor,
+                                        final @RequestParam(defaultValue = "50") int limit) {
+        if (log.isDebugEnabled()) {
+            log.debug("Поиск задач по запросу: {}", q);
+        }
+        return taskService.searchTasks(q, cursor, limit);
+    }
+
+    @GetMapping(value = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter stream(final Authentication authentication) {
+        if (log.isDebugEnabled()) {
+            log.debug("Подписка на события задач пользователя {}", authentication.getName());
+        }
+        return taskEventBroker.subscribe(authentication.getName());
     }
 
     @GetMapping("/{date}")
-    public List<TaskResponse> getTaskByDate(final @PathVariable LocalDate date) {
+    public ResponseEntity<TaskPageResponse> getTaskByDate(final @PathVariable LocalDate date,
+                                                          final @RequestParam(required = false) String cursor,
+                                                          final @RequestParam(defaultValue = "50") int limit,
+                                                          final @RequestHeader(value = HttpHeaders.ACCEPT, defaultValue = MediaType.ALL_VALUE) String accept) {
         if (log.isDebugEnabled()) {
             log.debug("Запрос на получение задач на дату: {}", date);
         }
-        return taskService.getTasksByDate(date);
+        return withETag(taskService.getTasksByDate(date, cursor, limit), accept);
     }
 
     @GetMapping("/completed")
-    public List<TaskResponse> getCompletedTasks() {
+    public ResponseEntity<TaskPageResponse> getCompletedTasks(final @RequestParam(required = false) String cursor,
+                                                              final @RequestParam(defaultValue = "50") int limit,
+                                                              final @RequestHeader(value = HttpHeaders.ACCEPT, defaultValue = MediaType.ALL_VALUE) String accept) {
         if (log.isDebugEnabled()) {
             log.debug("Запрос на получение выполненных задач");
         }
-        return taskService.getCompletedTasks();
+        return withETag(taskService.getCompletedTasks(cursor, limit), accept);
+    }
+
+    private static ResponseEntity<TaskPageResponse> withETag(final TaskPageSnapshot snapshot, final String accept) {
+        return ResponseEntity.ok()
+                .eTag(snapshot.etag() + "-" + pageFormat(accept).getSubtype())
+                .cacheControl(CacheControl.noCache())
+                .varyBy(HttpHeaders.ACCEPT)
+                .body(snapshot.page());
+    }
+
+    private static MediaType pageFormat(final String accept) {
+        final List<MediaType> accepted;
+        try {
+            accepted = new ArrayList<>(MediaType.parseMediaTypes(accept));
+        } catch (final InvalidMediaTypeException thrown) {
+            return MediaType.APPLICATION_JSON;
+        }
+        accepted.sort(Comparator.comparingDouble(MediaType::getQualityValue).reversed());
+        for (val type : accepted) {
+            if (type.getQualityValue() == 0) {
+                continue;
+            }
+            for (val format : PAGE_FORMATS) {
+                if (type.includes(format)) {
+                    return format;
+                }
+            }
+        }
+        return MediaType.APPLICATION_JSON;
+    }
+
+    @GetMapping(value = "/export", produces = NDJSON)
+    public ResponseEntity<StreamingResponseBody> exportTasks(final @RequestParam(defaultValue = "false") boolean all,
+                                                             final @RequestParam(defaultValue = "false") boolean gzip,
+                                                             final Authentication authentication) {
+        val username = authentication.getName();
+        if (all && !taskExportService.canExportAll(username)) {
+            log.warn("Попытка выгрузки задач всех пользователей пользователем {}", username);
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
+        }
+        log.info("Выгрузка задач: all={}, gzip={}, пользователь {}", all, gzip, username);
+
+        StreamingResponseBody body = out -> {
+            final OutputStream target = gzip ? new GZIPOutputStream(out, 64 * 1024) : out;
+            if (all) {
+                taskExportService.exportAllTasks(target);
+            } else {
+                taskExportService.exportUserTasks(username, target);
+            }
+            if (target instanceof GZIPOutputStream compressed) {
+                compressed.finish();
+            }
+        };
+
+        val response = ResponseEntity.ok()
+                .header(HttpHeaders.CONTENT_TYPE, NDJSON);
+        if (gzip) {
+            response.header(HttpHeaders.CONTENT_ENCODING, "gzip");
+        }
+        return response.body(body);
+    }
+
+    @PostMapping(value = "/import", consumes = {NDJSON, CSV})
+    public TaskImportResult importTasks(final @RequestHeader(HttpHeaders.CONTENT_TYPE) MediaType contentType,
+                                        final InputStream body,
+                                        final Authentication authentication) throws IOException {
+        val format = contentType.isCompatibleWith(MediaType.parseMediaType(CSV)) ? ImportFormat.CSV : ImportFormat.NDJSON;
+        log.info("Импорт задач в формате {} для пользователя {}", format, authentication.getName());
+        return taskImportService.importTasks(authentication.getName(), format, body);
     }
 
     @PostMapping
@@ -61,10 +224,22 @@ public class TaskController {
         return ResponseEntity.ok(taskService.updateTask(id, updateTaskDto));
     }
 
+    @PatchMapping("/{id}")
+    public TaskResponse patchTask(final @PathVariable UUID id, final @RequestBody PatchTaskDto patch) {
+        log.info("Частичное обновление задачи с id: {}", id);
+        return taskService.patchTask(id, patch);
+    }
+
     @DeleteMapping("/{id}")
     public ResponseEntity<Void> deleteTask(final @PathVariable UUID id) {
         log.info("Удаление задачи с id: {}", id);
         taskService.deleteTask(id);
         return ResponseEntity.ok().build();
     }
+
+    @PostMapping("/batch")
+    public List<TaskBatchResult> applyBatch(final @RequestBody List<TaskBatchOperation> operations) {
+        log.info("Пакетное изменение задач: {} операций", operations.size());
+        return taskService.applyBatch(operations);
+    }
 }
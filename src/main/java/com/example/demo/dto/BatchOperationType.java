@@ -0,0 +1,7 @@
+package com.example.demo.dto;
+
+public enum BatchOperationType {
+    CREATE,
+    UPDATE,
+    DELETE
+}
@@ -0,0 +1,13 @@
+package com.example.demo.dto;
+
+import lombok.Builder;
+
+import java.time.LocalDate;
+
+@Builder
+public record CalendarDay(
+    LocalDate date,
+    long total,
+    long completed,
+    long overdue
+) {}
@@ -0,0 +1,13 @@
+package com.example.demo.dto;
+
+import lombok.Builder;
+
+import java.time.LocalDate;
+import java.util.List;
+
+@Builder
+public record CalendarResponse(
+    LocalDate from,
+    LocalDate to,
+    List<CalendarDay> days
+) {}
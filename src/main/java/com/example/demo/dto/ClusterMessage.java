@@ -0,0 +1,17 @@
+package com.example.demo.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.Builder;
+
+import java.time.Instant;
+
+@Builder
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record ClusterMessage(
+    String origin,
+    ClusterMessageType type,
+    String username,
+    TaskEvent event,
+    String digest,
+    Instant expiresAt
+) {}
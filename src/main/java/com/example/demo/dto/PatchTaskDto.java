@@ -0,0 +1,12 @@
+package com.example.demo.dto;
+
+import lombok.Builder;
+
+import java.time.LocalDate;
+
+@Builder
+public record PatchTaskDto(
+    String title,
+    Boolean completed,
+    LocalDate deadline
+) {}
@@ -0,0 +1,14 @@
+package com.example.demo.dto;
+
+import lombok.Builder;
+import lombok.NonNull;
+
+import java.util.UUID;
+
+@Builder
+public record TaskBatchOperation(
+    @NonNull BatchOperationType op,
+    UUID id,
+    TaskDto task,
+    UpdateTaskDto update
+) {}
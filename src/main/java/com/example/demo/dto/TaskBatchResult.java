@@ -0,0 +1,15 @@
+package com.example.demo.dto;
+
+import lombok.Builder;
+
+import java.util.UUID;
+
+@Builder
+public record TaskBatchResult(
+    int index,
+    BatchOperationType op,
+    UUID id,
+    int status,
+    TaskResponse task,
+    String error
+) {}
@@ -0,0 +1,14 @@
+package com.example.demo.dto;
+
+import lombok.Builder;
+
+import java.util.List;
+import java.util.UUID;
+
+@Builder
+public record TaskChangesResponse(
+    List<TaskResponse> changed,
+    List<UUID> deleted,
+    String next,
+    boolean hasMore
+) {}
@@ -0,0 +1,16 @@
+package com.example.demo.dto;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.Builder;
+
+import java.util.UUID;
+
+@Builder
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record TaskEvent(
+    @JsonIgnore String username,
+    TaskEventType type,
+    UUID taskId,
+    TaskResponse task
+) {}
@@ -0,0 +1,8 @@
+package com.example.demo.dto;
+
+public enum TaskEventType {
+    CREATED,
+    UPDATED,
+    DELETED,
+    RESYNC
+}
@@ -0,0 +1,9 @@
+package com.example.demo.dto;
+
+import lombok.Builder;
+
+@Builder
+public record TaskImportError(
+    long line,
+    String error
+) {}
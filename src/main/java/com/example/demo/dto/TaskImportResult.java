@@ -0,0 +1,15 @@
+package com.example.demo.dto;
+
+import lombok.Builder;
+
+import java.util.List;
+
+@Builder
+public record TaskImportResult(
+    long imported,
+    long subtasks,
+    long rejected,
+    List<TaskImportError> errors,
+    Long stoppedAtLine,
+    long elapsedMillis
+) {}
@@ -0,0 +1,11 @@
+package com.example.demo.dto;
+
+import lombok.Builder;
+
+import java.util.List;
+
+@Builder
+public record TaskPageResponse(
+    List<TaskResponse> items,
+    String nextCursor
+) {}
@@ -0,0 +1,11 @@
+package com.example.demo.dto;
+
+import lombok.Builder;
+
+import java.time.Instant;
+
+@Builder
+public record TokenRevokedEvent(
+    String digest,
+    Instant expiresAt
+) {}
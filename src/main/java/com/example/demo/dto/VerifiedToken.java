@@ -0,0 +1,24 @@
+package com.example.demo.dto;
+
+import lombok.Builder;
+
+import java.time.Instant;
+
+@Builder
+public record VerifiedToken(
+    String subject,
+    String type,
+    Instant expiration
+) {
+    public boolean isAccess() {
+        return "access".equals(type);
+    }
+
+    public boolean isRefresh() {
+        return "refresh".equals(type);
+    }
+
+    public boolean isExpiredAt(final Instant now) {
+        return expiration != null && !expiration.isAfter(now);
+    }
+}
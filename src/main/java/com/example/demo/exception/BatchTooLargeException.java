@@ -0,0 +1,10 @@
+package com.example.demo.exception;
+
+import lombok.experimental.StandardException;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@StandardException
+@ResponseStatus(HttpStatus.PAYLOAD_TOO_LARGE)
+public class BatchTooLargeException extends RuntimeException {
+}
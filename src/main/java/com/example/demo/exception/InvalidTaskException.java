@@ -0,0 +1,10 @@
+package com.example.demo.exception;
+
+import lombok.experimental.StandardException;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@StandardException
+@ResponseStatus(HttpStatus.BAD_REQUEST)
+public class InvalidTaskException extends RuntimeException {
+}
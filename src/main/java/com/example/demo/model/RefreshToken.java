@@ -4,6 +4,7 @@ import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
 import jakarta.persistence.Id;
 import jakarta.persistence.Table;
+import jakarta.persistence.Transient;
 import lombok.AccessLevel;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
@@ -27,7 +28,10 @@ public class RefreshToken {
     @Column(nullable = false, unique = true)
     String username;
 
-    @Column(length = 2048)
+    @Column(name = "token_hash", length = 64)
+    String tokenHash;
+
+    @Transient
     String token;
     Instant expiry;
     @Builder.Default
@@ -0,0 +1,33 @@
+package com.example.demo.model;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.experimental.FieldDefaults;
+
+import java.time.Instant;
+
+@Entity
+@Table(name = "revoked_access_tokens")
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+@FieldDefaults(level = AccessLevel.PRIVATE)
+public class RevokedAccessToken {
+    @Id
+    @Column(length = 64)
+    String digest;
+
+    @Column(nullable = false)
+    Instant expiresAt;
+
+    @Column(nullable = false)
+    Instant revokedAt;
+}
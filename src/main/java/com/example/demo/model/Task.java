@@ -10,6 +10,7 @@ import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.BatchSize;
 
 @Entity
 @Table(name = "todos")
@@ -28,6 +29,7 @@ public class Task {
     @Builder.Default
     boolean completed = false;
 
+    @Column(nullable = false)
     @Builder.Default
     LocalDate createdAt = LocalDate.now();
 
@@ -35,7 +37,8 @@ public class Task {
     String ldapUid;
 
     @OneToMany(cascade = CascadeType.ALL, orphanRemoval = true)
-    @JoinColumn(name = "task_id")
+    @JoinColumn(name = "task_id", nullable = false)
+    @BatchSize(size = 100)
     @Builder.Default
     List<Subtask> subtasks = new ArrayList<>();
 }
@@ -2,12 +2,65 @@ package com.example.demo.repository;
 
 import com.example.demo.model.RefreshToken;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.Instant;
 import java.util.List;
 import java.util.Optional;
 
 public interface RefreshTokenRepository extends JpaRepository<RefreshToken, String> {
-    Optional<RefreshToken> findByToken(final String token);
+    Optional<RefreshToken> findByTokenHash(final String tokenHash);
     List<RefreshToken> findAllByUsernameAndRevokedFalse(final String username);
     Optional<RefreshToken> findByUsername(final String username);
+
+    @Transactional
+    @Query(value = """
+            INSERT INTO refresh_tokens (id, username, token_hash, expiry, revoked)
+            VALUES (:id, :username, :tokenHash, :expiry, false)
+            ON CONFLICT (username) DO UPDATE
+            SET token_hash = EXCLUDED.token_hash, expiry = EXCLUDED.expiry, revoked = false
+            RETURNING *
+            """, nativeQuery = true)
+    RefreshToken upsert(final String id, final String username, final String tokenHash, final Instant expiry);
+
+    @Transactional
+    @Query(value = """
+            UPDATE refresh_tokens
+            SET token_hash = :newHash, expiry = :expiry
+            WHERE token_hash = :oldHash AND username = :username AND revoked = false
+            RETURNING *
+            """, nativeQuery = true)
+    Optional<RefreshToken> rotate(final String username, final String oldHash, final String newHash,
+                                  final Instant expiry);
+
+    @Transactional
+    @Modifying
+    @Query("UPDATE RefreshToken t SET t.revoked = true WHERE t.tokenHash = :tokenHash")
+    int revokeByTokenHash(final String tokenHash);
+
+    @Query(value = """
+            SELECT id FROM refresh_tokens
+            WHERE id > :after AND (expiry < :now OR revoked)
+            ORDER BY id
+            LIMIT :limit
+            """, nativeQuery = true)
+    List<String> findPurgeable(final Instant now, final String after, final int limit);
+
+    @Transactional
+    @Query(value = """
+            WITH doomed AS (
+                SELECT id FROM refresh_tokens
+                WHERE id > :after AND (expiry < :now OR revoked)
+                ORDER BY id
+                LIMIT :limit
+                FOR UPDATE SKIP LOCKED
+            ), deleted AS (
+                DELETE FROM refresh_tokens t USING doomed WHERE t.id = doomed.id
+                RETURNING t.id
+            )
+            SELECT id FROM deleted ORDER BY id
+            """, nativeQuery = true)
+    List<String> purgeBatch(final Instant now, final String after, final int limit);
 }
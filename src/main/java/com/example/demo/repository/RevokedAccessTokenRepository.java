@@ -0,0 +1,30 @@
+package com.example.demo.repository;
+
+import com.example.demo.model.RevokedAccessToken;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+import java.util.List;
+
+public interface RevokedAccessTokenRepository extends JpaRepository<RevokedAccessToken, String> {
+    List<RevokedAccessToken> findByRevokedAtAfterAndExpiresAtAfter(final Instant revokedAfter, final Instant expiresAfter);
+
+    boolean existsByDigestAndExpiresAtAfter(final String digest, final Instant expiresAfter);
+
+    @Modifying
+    @Transactional
+    @Query(value = """
+            INSERT INTO revoked_access_tokens (digest, expires_at, revoked_at)
+            VALUES (:digest, :expiresAt, :revokedAt)
+            ON CONFLICT (digest) DO NOTHING
+            """, nativeQuery = true)
+    int insertIfAbsent(final String digest, final Instant expiresAt, final Instant revokedAt);
+
+    @Modifying
+    @Transactional
+    @Query("delete from RevokedAccessToken t where t.expiresAt < :now")
+    int deleteExpired(final Instant now);
+}
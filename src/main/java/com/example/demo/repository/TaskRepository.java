@@ -1,14 +1,79 @@
 package com.example.demo.repository;
 
 import com.example.demo.model.Task;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 
 import java.time.LocalDate;
 import java.util.List;
 import java.util.UUID;
+import java.util.stream.Stream;
 
-public interface TaskRepository extends JpaRepository<Task, UUID> {
-    List<Task> findByldapUid(final String ldapUid);
-    List<Task> findByldapUidAndCompleted(final String ldapUid, final boolean completed);
-    List<Task> findByldapUidAndDeadline(final String ldapUid, final LocalDate dueDate);
+public interface TaskRepository extends JpaRepository<Task, UUID>, TaskRepositoryCustom {
+    List<Task> findByldapUidOrderByCreatedAtAscIdAsc(final String ldapUid, final Pageable page);
+
+    List<Task> findByldapUidAndCompletedTrueOrderByCreatedAtAscIdAsc(final String ldapUid, final Pageable page);
+
+    List<Task> deleteByIdAndLdapUid(final UUID id, final String ldapUid);
+
+    List<Task> findByldapUidAndDeadlineOrderByCreatedAtAscIdAsc(final String ldapUid, final LocalDate dueDate,
+                                                                  final Pageable page);
+
+    @Query("""
+            select t from Task t
+            where t.ldapUid = :ldapUid
+              and (t.createdAt, t.id) > (:createdAt, :id)
+            order by t.createdAt, t.id
+            """)
+    List<Task> findPageAfter(final String ldapUid, final LocalDate createdAt, final UUID id, final Pageable page);
+
+    @Query("""
+            select t from Task t
+            where t.ldapUid = :ldapUid
+              and t.completed = true
+              and (t.createdAt, t.id) > (:createdAt, :id)
+            order by t.createdAt, t.id
+            """)
+    List<Task> findCompletedPageAfter(final String ldapUid, final LocalDate createdAt, final UUID id,
+                                      final Pageable page);
+
+    @Query("""
+            select t from Task t
+            where t.ldapUid = :ldapUid
+              and t.deadline = :dueDate
+              and (t.createdAt, t.id) > (:createdAt, :id)
+            order by t.createdAt, t.id
+            """)
+    List<Task> findPageAfterByDeadline(final String ldapUid, final LocalDate dueDate, final LocalDate createdAt,
+                                       final UUID id, final Pageable page);
+
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("select t from Task t where t.ldapUid = :ldapUid order by t.createdAt, t.id")
+    Stream<Task> streamByldapUid(final String ldapUid);
+
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("""
+            select t from Task t
+            where t.ldapUid = :ldapUid
+              and t.deadline between :from and :to
+            order by t.deadline, t.createdAt, t.id
+            """)
+    Stream<Task> streamByDeadlineBetween(final String ldapUid, final LocalDate from, final LocalDate to);
+
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("select t from Task t order by t.ldapUid, t.createdAt, t.id")
+    Stream<Task> streamAll();
 }
@@ -0,0 +1,34 @@
+package com.example.demo.repository;
+
+import com.example.demo.dto.CalendarDay;
+import com.example.demo.dto.PatchTaskDto;
+import com.example.demo.dto.TaskResponse;
+import com.example.demo.dto.TaskSearchHit;
+import com.example.demo.utils.SearchCursor;
+import com.example.demo.utils.SearchQuery;
+import com.example.demo.utils.TaskCursor;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+public interface TaskRepositoryCustom {
+    Optional<TaskResponse> patch(final UUID id, final String ldapUid, final PatchTaskDto patch);
+
+    long currentWatermark();
+
+    List<TaskResponse> findChangedSince(final String ldapUid, final long watermark);
+
+    List<TaskResponse> findSnapshotPage(final String ldapUid, final TaskCursor after, final int limit);
+
+    List<UUID> findDeletedSince(final String ldapUid, final long watermark);
+
+    int purgeTombstones(final Instant deletedBefore);
+
+    List<CalendarDay> countByDeadline(final String ldapUid, final LocalDate from, final LocalDate to,
+                                      final LocalDate today);
+
+    List<TaskSearchHit> search(final String ldapUid, final SearchQuery query, final SearchCursor after, final int limit);
+}
@@ -0,0 +1,254 @@
+package com.example.demo.repository;
+
+import com.example.demo.dto.CalendarDay;
+import com.example.demo.dto.PatchTaskDto;
+import com.example.demo.dto.SubtaskResponse;
+import com.example.demo.dto.TaskResponse;
+import com.example.demo.dto.TaskSearchHit;
+import com.example.demo.utils.SearchCursor;
+import com.example.demo.utils.SearchQuery;
+import com.example.demo.utils.TaskCursor;
+import lombok.val;
+import lombok.RequiredArgsConstructor;
+import lombok.experimental.FieldDefaults;
+import org.springframework.jdbc.core.ResultSetExtractor;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+@RequiredArgsConstructor
+@FieldDefaults(makeFinal = true)
+public class TaskRepositoryCustomImpl implements TaskRepositoryCustom {
+    private static final String PATCH = """
+            WITH patched AS (
+                UPDATE todos
+                SET title = COALESCE(:title, title),
+                    completed = COALESCE(:completed, completed),
+                    deadline = COALESCE(:deadline, deadline)
+                WHERE id = :id AND ldap_uid = :ldapUid
+                RETURNING id, title, completed, created_at, deadline
+            )
+            SELECT p.id, p.title, p.completed, p.created_at, p.deadline,
+                   s.id AS subtask_id, s.text AS subtask_text, s.completed AS subtask_completed
+            FROM patched p
+            LEFT JOIN subtasks s ON s.task_id = p.id
+            """;
+    private static final String WATERMARK = "SELECT pg_snapshot_xmin(pg_current_snapshot())::text";
+    private static final String CHANGED_SINCE = """
+            SELECT t.id, t.title, t.completed, t.created_at, t.deadline,
+                   s.id AS subtask_id, s.text AS subtask_text, s.completed AS subtask_completed
+            FROM todos t
+            LEFT JOIN subtasks s ON s.task_id = t.id
+            WHERE t.ldap_uid = :ldapUid AND t.change_xid >= CAST(:watermark AS xid8)
+            ORDER BY t.change_xid, t.id
+            """;
+    private static final String SNAPSHOT = """
+            WITH page AS (
+                SELECT id, title, completed, created_at, deadline
+                FROM todos
+                WHERE ldap_uid = :ldapUid %s
+                ORDER BY created_at, id
+                LIMIT :limit
+            )
+            SELECT p.id, p.title, p.completed, p.created_at, p.deadline,
+                   s.id AS subtask_id, s.text AS subtask_text, s.completed AS subtask_completed
+            FROM page p
+            LEFT JOIN subtasks s ON s.task_id = p.id
+            ORDER BY p.created_at, p.id
+            """;
+    private static final String SNAPSHOT_FIRST = SNAPSHOT.formatted("");
+    private static final String SNAPSHOT_AFTER = SNAPSHOT.formatted(
+            "AND (created_at, id) > (:afterCreatedAt, :afterId)");
+    private static final String DELETED_SINCE = """
+            SELECT task_id FROM task_tombstones
+            WHERE ldap_uid = :ldapUid AND change_xid >= CAST(:watermark AS xid8)
+            """;
+    private static final String PURGE_TOMBSTONES = "DELETE FROM task_tombstones WHERE deleted_at < :deletedBefore";
+    private static final String COUNT_BY_DEADLINE = """
+            SELECT deadline,
+                   count(*) AS total,
+                   count(*) FILTER (WHERE completed) AS completed,
+                   count(*) FILTER (WHERE NOT completed AND deadline < :today) AS overdue
+            FROM todos
+            WHERE ldap_uid = :ldapUid AND deadline BETWEEN :from AND :to
+            GROUP BY deadline
+            ORDER BY deadline
+            """;
+    private static final String SEARCH = """
+            WITH matched AS (
+                SELECT t.id, t.title, t.completed, t.created_at, t.deadline,
+                       ts_rank_cd(t.search_vector, q.query) AS rank
+                FROM todos t
+                CROSS JOIN LATERAL (
+                    SELECT to_tsquery('russian', :complete)
+                               && (to_tsquery('simple', :prefix) || to_tsquery('russian', :last)) AS query
+                ) q
+                WHERE t.ldap_uid = :ldapUid AND t.search_vector @@ q.query
+            ), page AS (
+                SELECT * FROM matched
+                %s
+                ORDER BY rank DESC, id
+                LIMIT :limit
+            )
+            SELECT p.id, p.title, p.completed, p.created_at, p.deadline, p.rank,
+                   s.id AS subtask_id, s.text AS subtask_text, s.completed AS subtask_completed
+            FROM page p
+            LEFT JOIN subtasks s ON s.task_id = p.id
+            ORDER BY p.rank DESC, p.id
+            """;
+    private static final String SEARCH_FIRST = SEARCH.formatted("");
+    private static final String SEARCH_AFTER = SEARCH.formatted(
+            "WHERE rank < CAST(:afterRank AS real) OR (rank = CAST(:afterRank AS real) AND id > :afterId)");
+
+    NamedParameterJdbcTemplate jdbcTemplate;
+
+    @Override
+    public Optional<TaskResponse> patch(final UUID id, final String ldapUid, final PatchTaskDto patch) {
+        val params = new MapSqlParameterSource()
+                .addValue("id", id)
+                .addValue("ldapUid", ldapUid)
+                .addValue("title", patch.title(), Types.VARCHAR)
+                .addValue("completed", patch.completed(), Types.BOOLEAN)
+                .addValue("deadline", patch.deadline(), Types.DATE);
+        return jdbcTemplate.query(PATCH, params,
+                (ResultSetExtractor<List<TaskResponse>>) TaskRepositoryCustomImpl::toResponses)
+                .stream()
+                .findFirst();
+    }
+
+    @Override
+    public long currentWatermark() {
+        return Long.parseLong(jdbcTemplate.getJdbcTemplate().queryForObject(WATERMARK, String.class));
+    }
+
+    @Override
+    public List<TaskResponse> findChangedSince(final String ldapUid, final long watermark) {
+        return jdbcTemplate.query(CHANGED_SINCE, watermarkParams(ldapUid, watermark),
+                (ResultSetExtractor<List<TaskResponse>>) TaskRepositoryCustomImpl::toResponses);
+    }
+
+    @Override
+    public List<TaskResponse> findSnapshotPage(final String ldapUid, final TaskCursor after, final int limit) {
+        val params = new MapSqlParameterSource()
+                .addValue("ldapUid", ldapUid)
+                .addValue("limit", limit);
+        if (after != null) {
+            params.addValue("afterCreatedAt", after.createdAt())
+                    .addValue("afterId", after.id());
+        }
+        return jdbcTemplate.query(after == null ? SNAPSHOT_FIRST : SNAPSHOT_AFTER, params,
+                (ResultSetExtractor<List<TaskResponse>>) TaskRepositoryCustomImpl::toResponses);
+    }
+
+    @Override
+    public List<UUID> findDeletedSince(final String ldapUid, final long watermark) {
+        return jdbcTemplate.query(DELETED_SINCE, watermarkParams(ldapUid, watermark),
+                (rs, rowNum) -> rs.getObject("task_id", UUID.class));
+    }
+
+    @Override
+    public int purgeTombstones(final Instant deletedBefore) {
+        return jdbcTemplate.update(PURGE_TOMBSTONES, new MapSqlParameterSource()
+                .addValue("deletedBefore", Timestamp.from(deletedBefore)));
+    }
+
+    @Override
+    public List<CalendarDay> countByDeadline(final String ldapUid, final LocalDate from, final LocalDate to,
+                                             final LocalDate today) {
+        val params = new MapSqlParameterSource()
+                .addValue("ldapUid", ldapUid)
+                .addValue("from", from)
+                .addValue("to", to)
+                .addValue("today", today);
+        return jdbcTemplate.query(COUNT_BY_DEADLINE, params, (rs, rowNum) -> CalendarDay.builder()
+                .date(rs.getObject("deadline", LocalDate.class))
+                .total(rs.getLong("total"))
+                .completed(rs.getLong("completed"))
+                .overdue(rs.getLong("overdue"))
+                .build());
+    }
+
+    @Override
+    public List<TaskSearchHit> search(final String ldapUid, final SearchQuery query, final SearchCursor after,
+                                      final int limit) {
+        val params = new MapSqlParameterSource()
+                .addValue("ldapUid", ldapUid)
+                .addValue("complete", query.complete())
+                .addValue("prefix", query.prefix())
+                .addValue("last", query.last())
+                .addValue("limit", limit);
+        if (after != null) {
+            params.addValue("afterRank", after.rank())
+                    .addValue("afterId", after.id());
+        }
+        val ranks = new ArrayList<Float>();
+        val tasks = jdbcTemplate.query(after == null ? SEARCH_FIRST : SEARCH_AFTER, params,
+                (ResultSetExtractor<List<TaskResponse>>) rs -> toResponses(rs, ranks));
+        val hits = new ArrayList<TaskSearchHit>(tasks.size());
+        for (int i = 0; i < tasks.size(); i++) {
+            hits.add(TaskSearchHit.builder()
+                    .task(tasks.get(i))
+                    .rank(ranks.get(i))
+                    .build());
+        }
+        return hits;
+    }
+
+    private static MapSqlParameterSource watermarkParams(final String ldapUid, final long watermark) {
+        return new MapSqlParameterSource()
+                .addValue("ldapUid", ldapUid)
+                .addValue("watermark", Long.toString(watermark));
+    }
+
+    private static List<TaskResponse> toResponses(final ResultSet rs) throws SQLException {
+        return toResponses(rs, null);
+    }
+
+    private static List<TaskResponse> toResponses(final ResultSet rs, final List<Float> ranks) throws SQLException {
+        val tasks = new ArrayList<TaskResponse>();
+        TaskResponse.TaskResponseBuilder task = null;
+        List<SubtaskResponse> subtasks = null;
+        UUID current = null;
+        while (rs.next()) {
+            val id = rs.getObject("id", UUID.class);
+            if (!id.equals(current)) {
+                if (task != null) {
+                    tasks.add(task.subtasks(subtasks).build());
+                }
+                current = id;
+                subtasks = new ArrayList<>();
+                if (ranks != null) {
+                    ranks.add(rs.getFloat("rank"));
+                }
+                task = TaskResponse.builder()
+                        .id(id)
+                        .title(rs.getString("title"))
+                        .completed(rs.getBoolean("completed"))
+                        .createdAt(rs.getObject("created_at", LocalDate.class))
+                        .deadline(rs.getObject("deadline", LocalDate.class));
+            }
+            val subtaskId = rs.getObject("subtask_id", UUID.class);
+            if (subtaskId != null) {
+                subtasks.add(SubtaskResponse.builder()
+                        .id(subtaskId)
+                        .text(rs.getString("subtask_text"))
+                        .completed(rs.getBoolean("subtask_completed"))
+                        .build());
+            }
+        }
+        if (task != null) {
+            tasks.add(task.subtasks(subtasks).build());
+        }
+        return tasks;
+    }
+}
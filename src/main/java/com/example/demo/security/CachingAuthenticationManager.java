@@ -0,0 +1,65 @@
+package com.example.demo.security;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import lombok.val;
+import lombok.experimental.FieldDefaults;
+import org.springframework.security.authentication.AuthenticationManager;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.AuthenticationException;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.SecureRandom;
+import java.time.Duration;
+import java.util.HexFormat;
+
+@FieldDefaults(makeFinal = true)
+public class CachingAuthenticationManager implements AuthenticationManager {
+    private static final String HMAC = "HmacSHA256";
+
+    AuthenticationManager delegate;
+    SecretKeySpec salt;
+    Cache<String, Authentication> successes;
+
+    public CachingAuthenticationManager(final AuthenticationManager delegate, final Duration ttl,
+                                        final long maxEntries) {
+        val random = new byte[32];
+        new SecureRandom().nextBytes(random);
+        this.delegate = delegate;
+        this.salt = new SecretKeySpec(random, HMAC);
+        this.successes = Caffeine.newBuilder()
+                .maximumSize(maxEntries)
+                .expireAfterWrite(ttl)
+                .build();
+    }
+
+    @Override
+    public Authentication authenticate(final Authentication authentication) throws AuthenticationException {
+        if (authentication.getCredentials() == null) {
+            return delegate.authenticate(authentication);
+        }
+        val key = digest(authentication.getName(), authentication.getCredentials().toString());
+        val cached = successes.getIfPresent(key);
+        if (cached != null) {
+            return cached;
+        }
+        val result = delegate.authenticate(authentication);
+        successes.put(key, result);
+        return result;
+    }
+
+    private String digest(final String username, final String password) {
+        try {
+            val mac = Mac.getInstance(HMAC);
+            mac.init(salt);
+            mac.update(username.getBytes(StandardCharsets.UTF_8));
+            mac.update((byte) 0);
+            return HexFormat.of().formatHex(mac.doFinal(password.getBytes(StandardCharsets.UTF_8)));
+        } catch (final GeneralSecurityException thrown) {
+            throw new IllegalStateException("HMAC-SHA256 недоступен", thrown);
+        }
+    }
+}
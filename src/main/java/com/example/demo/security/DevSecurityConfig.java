@@ -1,20 +1,24 @@
 package com.example.demo.security;
 
 import com.example.demo.utils.JwtAuthFilter;
+import com.example.demo.utils.LdapBindProperties;
+import com.example.demo.utils.LdapPoolProperties;
+import com.example.demo.utils.LdapProperties;
 
+import com.unboundid.ldap.sdk.LDAPConnectionPool;
+import com.unboundid.ldap.sdk.LDAPException;
+import jakarta.servlet.DispatcherType;
 import lombok.val;
 import lombok.RequiredArgsConstructor;
 import lombok.experimental.FieldDefaults;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.context.annotation.Profile;
-import org.springframework.ldap.core.support.BaseLdapPathContextSource;
 import org.springframework.ldap.core.support.LdapContextSource;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
 import org.springframework.security.config.http.SessionCreationPolicy;
-import org.springframework.security.config.ldap.LdapBindAuthenticationManagerFactory;
 import org.springframework.security.web.SecurityFilterChain;
 import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
 
@@ -25,13 +29,18 @@ import org.springframework.security.web.authentication.UsernamePasswordAuthentic
 @FieldDefaults(makeFinal = true)
 public class DevSecurityConfig {
     JwtAuthFilter jwtAuthFilter;
+    LdapBindProperties ldapBindProperties;
+    LdapPoolProperties ldapPoolProperties;
+    LdapProperties ldapProperties;
 
     @Bean
     public SecurityFilterChain securityFilterChain(final HttpSecurity http) throws Exception {
         http
                 .csrf(csrf -> csrf.disable())
                 .authorizeHttpRequests(auth -> auth
-                        .requestMatchers("/auth/login", "/public/**", "/auth/refresh")
+                        .dispatcherTypeMatchers(DispatcherType.ASYNC)
+                        .permitAll()
+                        .requestMatchers("/auth/login", "/public/**", "/auth/refresh", "/actuator/health", "/actuator/prometheus")
                         .permitAll()
                         .anyRequest().authenticated()
                 )
@@ -44,17 +53,27 @@ public class DevSecurityConfig {
     @Bean
     public LdapContextSource contextSource() {
         val contextSource = new LdapContextSource();
-        contextSource.setUrl("ldap://localhost:389");
-        contextSource.setBase("dc=example,dc=com");
-        contextSource.setUserDn("cn=admin,dc=example,dc=com");
-        contextSource.setPassword("admin");
+        contextSource.setUrl(ldapProperties.getUrls());
+        contextSource.setBase(ldapProperties.getBase());
+        contextSource.setUserDn(ldapProperties.getUsername());
+        contextSource.setPassword(ldapProperties.getPassword());
+        contextSource.setPooled(true);
         return contextSource;
     }
 
     @Bean
-    public AuthenticationManager authenticationManager(final BaseLdapPathContextSource contextSource) {
-        val factory = new LdapBindAuthenticationManagerFactory(contextSource);
-        factory.setUserDnPatterns("cn={0}");
-        return factory.createAuthenticationManager();
+    public LDAPConnectionPool ldapConnectionPool() throws LDAPException {
+        return LdapConnectionPools.create(ldapProperties, ldapPoolProperties);
+    }
+
+    @Bean
+    public AuthenticationManager authenticationManager(final LDAPConnectionPool ldapConnectionPool) {
+        final AuthenticationManager pooled = new PooledLdapAuthenticationManager(ldapConnectionPool,
+                ldapProperties.getBase());
+        if (!ldapBindProperties.isCacheEnabled()) {
+            return pooled;
+        }
+        return new CachingAuthenticationManager(pooled, ldapBindProperties.getCacheTtl(),
+                ldapBindProperties.getCacheMaxEntries());
     }
 }
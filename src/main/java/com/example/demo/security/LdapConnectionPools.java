@@ -0,0 +1,57 @@
+package com.example.demo.security;
+
+import com.example.demo.utils.LdapPoolProperties;
+import com.example.demo.utils.LdapProperties;
+import com.unboundid.ldap.sdk.FailoverServerSet;
+import com.unboundid.ldap.sdk.GetEntryLDAPConnectionPoolHealthCheck;
+import com.unboundid.ldap.sdk.LDAPConnectionOptions;
+import com.unboundid.ldap.sdk.LDAPConnectionPool;
+import com.unboundid.ldap.sdk.LDAPException;
+import com.unboundid.ldap.sdk.LDAPURL;
+import com.unboundid.ldap.sdk.PostConnectProcessor;
+import com.unboundid.ldap.sdk.SimpleBindRequest;
+import lombok.val;
+import lombok.experimental.UtilityClass;
+import org.apache.commons.lang3.StringUtils;
+
+import javax.net.SocketFactory;
+import javax.net.ssl.SSLSocketFactory;
+
+@UtilityClass
+public class LdapConnectionPools {
+    public LDAPConnectionPool create(final LdapProperties ldap, final LdapPoolProperties pool) throws LDAPException {
+        val options = new LDAPConnectionOptions();
+        options.setConnectTimeoutMillis(Math.toIntExact(pool.getConnectTimeout().toMillis()));
+        options.setResponseTimeoutMillis(pool.getResponseTimeout().toMillis());
+
+        val urls = StringUtils.split(ldap.getUrls(), " ,");
+        val hosts = new String[urls.length];
+        val ports = new int[urls.length];
+        SocketFactory socketFactory = null;
+        for (int i = 0; i < urls.length; i++) {
+            val url = new LDAPURL(urls[i]);
+            hosts[i] = url.getHost();
+            ports[i] = url.getPort();
+            if ("ldaps".equalsIgnoreCase(url.getScheme())) {
+                socketFactory = SSLSocketFactory.getDefault();
+            }
+        }
+
+        val connectionPool = new LDAPConnectionPool(
+                new FailoverServerSet(hosts, ports, socketFactory, options),
+                new SimpleBindRequest(ldap.getUsername(), ldap.getPassword()),
+                pool.getInitialConnections(),
+                pool.getMaxConnections(),
+                (PostConnectProcessor) null,
+                false);
+        connectionPool.setConnectionPoolName("ldap-bind");
+        connectionPool.setCreateIfNecessary(false);
+        connectionPool.setMaxWaitTimeMillis(pool.getMaxWait().toMillis());
+        connectionPool.setMaxConnectionAgeMillis(pool.getMaxConnectionAge().toMillis());
+        connectionPool.setRetryFailedOperationsDueToInvalidConnections(true);
+        connectionPool.setHealthCheck(new GetEntryLDAPConnectionPoolHealthCheck(
+                "", pool.getResponseTimeout().toMillis(), true, false, false, false, true, true));
+        connectionPool.setHealthCheckIntervalMillis(pool.getHealthCheckInterval().toMillis());
+        return connectionPool;
+    }
+}
@@ -0,0 +1,50 @@
+package com.example.demo.security;
+
+import com.unboundid.ldap.sdk.DN;
+import com.unboundid.ldap.sdk.LDAPConnectionPool;
+import com.unboundid.ldap.sdk.LDAPException;
+import com.unboundid.ldap.sdk.RDN;
+import com.unboundid.ldap.sdk.ResultCode;
+import lombok.val;
+import lombok.RequiredArgsConstructor;
+import lombok.experimental.FieldDefaults;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.lang3.StringUtils;
+import org.springframework.security.authentication.AuthenticationManager;
+import org.springframework.security.authentication.AuthenticationServiceException;
+import org.springframework.security.authentication.BadCredentialsException;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.AuthenticationException;
+
+import java.util.List;
+import java.util.Objects;
+
+@Slf4j
+@RequiredArgsConstructor
+@FieldDefaults(makeFinal = true)
+public class PooledLdapAuthenticationManager implements AuthenticationManager {
+    LDAPConnectionPool pool;
+    String base;
+
+    @Override
+    public Authentication authenticate(final Authentication authentication) throws AuthenticationException {
+        val username = authentication.getName();
+        val password = Objects.toString(authentication.getCredentials(), "");
+        if (StringUtils.isBlank(username) || password.isEmpty()) {
+            throw new BadCredentialsException("Неверные учетные данные");
+        }
+
+        try {
+            val userDn = new DN(new RDN("cn", username), new DN(base));
+            pool.bindAndRevertAuthentication(userDn.toString(), password);
+        } catch (final LDAPException thrown) {
+            if (thrown.getResultCode() == ResultCode.INVALID_CREDENTIALS) {
+                throw new BadCredentialsException("Неверные учетные данные", thrown);
+            }
+            log.error("Ошибка обращения к LDAP при аутентификации {}: {}", username, thrown.getResultCode());
+            throw new AuthenticationServiceException("LDAP недоступен", thrown);
+        }
+        return UsernamePasswordAuthenticationToken.authenticated(username, null, List.of());
+    }
+}
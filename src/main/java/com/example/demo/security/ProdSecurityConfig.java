@@ -1,20 +1,23 @@
 package com.example.demo.security;
 
 import com.example.demo.utils.JwtAuthFilter;
+import com.example.demo.utils.LdapBindProperties;
+import com.example.demo.utils.LdapPoolProperties;
 import com.example.demo.utils.LdapProperties;
 import lombok.RequiredArgsConstructor;
+import com.unboundid.ldap.sdk.LDAPConnectionPool;
+import com.unboundid.ldap.sdk.LDAPException;
+import jakarta.servlet.DispatcherType;
 import lombok.val;
 import lombok.experimental.FieldDefaults;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.context.annotation.Profile;
-import org.springframework.ldap.core.support.BaseLdapPathContextSource;
 import org.springframework.ldap.core.support.LdapContextSource;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
 import org.springframework.security.config.http.SessionCreationPolicy;
-import org.springframework.security.config.ldap.LdapBindAuthenticationManagerFactory;
 import org.springframework.security.web.SecurityFilterChain;
 import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
 
@@ -25,6 +28,8 @@ import org.springframework.security.web.authentication.UsernamePasswordAuthentic
 @FieldDefaults(makeFinal = true)
 public class ProdSecurityConfig {
     JwtAuthFilter jwtAuthFilter;
+    LdapBindProperties ldapBindProperties;
+    LdapPoolProperties ldapPoolProperties;
     LdapProperties ldapProperties;
 
     @Bean
@@ -32,7 +37,9 @@ public class ProdSecurityConfig {
         http
                 .csrf(csrf -> csrf.disable())
                 .authorizeHttpRequests(auth -> auth
-                        .requestMatchers("/auth/login", "/public/**", "/auth/refresh")
+                        .dispatcherTypeMatchers(DispatcherType.ASYNC)
+                        .permitAll()
+                        .requestMatchers("/auth/login", "/public/**", "/auth/refresh", "/actuator/health", "/actuator/prometheus")
                         .permitAll()
                         .anyRequest().authenticated()
                 )
@@ -49,13 +56,23 @@ public class ProdSecurityConfig {
         contextSource.setBase(ldapProperties.getBase());
         contextSource.setUserDn(ldapProperties.getUsername());
         contextSource.setPassword(ldapProperties.getPassword());
+        contextSource.setPooled(true);
         return contextSource;
     }
 
     @Bean
-    public AuthenticationManager authenticationManager(final BaseLdapPathContextSource contextSource) {
-        val factory = new LdapBindAuthenticationManagerFactory(contextSource);
-        factory.setUserDnPatterns("cn={0}");
-        return factory.createAuthenticationManager();
+    public LDAPConnectionPool ldapConnectionPool() throws LDAPException {
+        return LdapConnectionPools.create(ldapProperties, ldapPoolProperties);
+    }
+
+    @Bean
+    public AuthenticationManager authenticationManager(final LDAPConnectionPool ldapConnectionPool) {
+        final AuthenticationManager pooled = new PooledLdapAuthenticationManager(ldapConnectionPool,
+                ldapProperties.getBase());
+        if (!ldapBindProperties.isCacheEnabled()) {
+            return pooled;
+        }
+        return new CachingAuthenticationManager(pooled, ldapBindProperties.getCacheTtl(),
+                ldapBindProperties.getCacheMaxEntries());
     }
 }
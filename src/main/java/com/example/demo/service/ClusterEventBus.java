@@ -0,0 +1,299 @@
+package com.example.demo.service;
+
+import com.example.demo.dto.ClusterMessage;
+import com.example.demo.dto.ClusterMessageType;
+import com.example.demo.dto.TaskEvent;
+import com.example.demo.dto.TaskEventType;
+import com.example.demo.dto.TokenRevokedEvent;
+import com.example.demo.utils.ClusterBusProperties;
+import com.example.demo.utils.RevocationProperties;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.val;
+import lombok.RequiredArgsConstructor;
+import lombok.experimental.FieldDefaults;
+import lombok.experimental.NonFinal;
+import lombok.extern.slf4j.Slf4j;
+import org.postgresql.PGConnection;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.regex.Pattern;
+
+@Service
+@RequiredArgsConstructor
+@FieldDefaults(makeFinal = true)
+@Slf4j
+public class ClusterEventBus {
+    private static final Pattern CHANNEL = Pattern.compile("[a-z_][a-z0-9_]*");
+    private static final String NOTIFY = "SELECT pg_notify(?, payload) FROM unnest(?::text[]) AS payload";
+
+    ClusterBusProperties props;
+    RevocationProperties revocationProperties;
+    DataSourceProperties dataSourceProperties;
+    ObjectMapper objectMapper;
+    TaskPageCache taskPageCache;
+    TaskEventBroker taskEventBroker;
+    RevokedTokenStore revokedTokenStore;
+    MeterRegistry meterRegistry;
+
+    String nodeId = UUID.randomUUID().toString();
+    Map<String, ClusterMessage> pending = new LinkedHashMap<>();
+    AtomicBoolean running = new AtomicBoolean();
+
+    @NonFinal
+    volatile Thread listener;
+
+    @NonFinal
+    volatile Integer backendPid;
+
+    @NonFinal
+    Counter sent;
+
+    @NonFinal
+    Counter received;
+
+    @NonFinal
+    Counter reconnects;
+
+    @PostConstruct
+    public void start() {
+        if (!props.isEnabled()) {
+            return;
+        }
+        if (!CHANNEL.matcher(props.getChannel()).matches()) {
+            throw new IllegalStateException("Недопустимое имя канала шины событий: " + props.getChannel());
+        }
+        if (!revocationProperties.isShared()) {
+            throw new IllegalStateException("Шина событий требует общего хранилища отзывов: jwt.revocation.shared=true");
+        }
+        this.sent = meterRegistry.counter("cluster.bus.messages", "direction", "sent");
+        this.received = meterRegistry.counter("cluster.bus.messages", "direction", "received");
+        this.reconnects = meterRegistry.counter("cluster.bus.reconnects");
+        running.set(true);
+        listener = Thread.ofPlatform()
+                .name("cluster-bus")
+                .daemon()
+                .start(this::listen);
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        running.set(false);
+        val thread = listener;
+        if (thread != null) {
+            thread.interrupt();
+            thread.join(props.getPollTimeout().plusSeconds(1));
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onTaskEvent(final TaskEvent event) {
+        enqueue(ClusterMessage.builder()
+                .origin(nodeId)
+                .type(ClusterMessageType.TASKS)
+                .username(event.username())
+                .event(event)
+                .build());
+    }
+
+    @EventListener
+    public void onTokenRevoked(final TokenRevokedEvent event) {
+        enqueue(ClusterMessage.builder()
+                .origin(nodeId)
+                .type(ClusterMessageType.TOKEN_REVOKED)
+                .digest(event.digest())
+                .expiresAt(event.expiresAt())
+                .build());
+    }
+
+    Integer backendPid() {
+        return backendPid;
+    }
+
+    private void enqueue(final ClusterMessage message) {
+        if (!running.get()) {
+            return;
+        }
+        synchronized (pending) {
+            pending.merge(key(message), message, (queued, next) ->
+                    next.type() == ClusterMessageType.TASKS ? resync(next.username()) : next);
+        }
+    }
+
+    private ClusterMessage resync(final String username) {
+        return ClusterMessage.builder()
+                .origin(nodeId)
+                .type(ClusterMessageType.TASKS)
+                .username(username)
+                .event(TaskEvent.builder()
+                        .username(username)
+                        .type(TaskEventType.RESYNC)
+                        .build())
+                .build();
+    }
+
+    private void listen() {
+        var delay = props.getReconnectDelay();
+        var missed = false;
+        val pollMillis = (int) Math.max(1, props.getPollTimeout().toMillis());
+        while (running.get()) {
+            try (Connection connection = connect();
+                 Statement statement = connection.createStatement()) {
+                connection.setAutoCommit(true);
+                statement.execute("LISTEN " + props.getChannel());
+                val pg = connection.unwrap(PGConnection.class);
+                backendPid = pg.getBackendPID();
+                log.info("Шина событий подписана на канал {}", props.getChannel());
+                if (missed) {
+                    reconnects.increment();
+                    resyncLocal();
+                }
+                delay = props.getReconnectDelay();
+                var lastActivity = System.nanoTime();
+
+                while (running.get()) {
+                    if (flush(connection)) {
+                        lastActivity = System.nanoTime();
+                    } else if (System.nanoTime() - lastActivity > props.getKeepaliveInterval().toNanos()) {
+                        statement.execute("SELECT 1");
+                        lastActivity = System.nanoTime();
+                    }
+                    val notifications = pg.getNotifications(pollMillis);
+                    if (notifications != null) {
+                        for (val notification : notifications) {
+                            receive(notification.getParameter());
+                        }
+                    }
+                }
+                flush(connection);
+                statement.execute("UNLISTEN *");
+            } catch (final SQLException thrown) {
+                backendPid = null;
+                missed = true;
+                if (!running.get()) {
+                    break;
+                }
+                log.warn("Соединение шины событий потеряно: {}, повтор через {}", thrown.getMessage(), delay);
+                try {
+                    Thread.sleep(delay);
+                } catch (final InterruptedException interrupted) {
+                    Thread.currentThread().interrupt();
+                    break;
+                }
+                delay = min(delay.multipliedBy(2), props.getMaxReconnectDelay());
+            }
+        }
+        backendPid = null;
+    }
+
+    private Connection connect() throws SQLException {
+        return DriverManager.getConnection(dataSourceProperties.determineUrl(),
+                dataSourceProperties.determineUsername(), dataSourceProperties.determinePassword());
+    }
+
+    private boolean flush(final Connection connection) throws SQLException {
+        final List<ClusterMessage> batch;
+        synchronized (pending) {
+            if (pending.isEmpty()) {
+                return false;
+            }
+            batch = new ArrayList<>(pending.values());
+            pending.clear();
+        }
+        val payloads = batch.stream()
+                .map(this::encode)
+                .filter(Objects::nonNull)
+                .toArray(String[]::new);
+        try (PreparedStatement statement = connection.prepareStatement(NOTIFY)) {
+            statement.setString(1, props.getChannel());
+            statement.setArray(2, connection.createArrayOf("text", payloads));
+            statement.execute();
+        } catch (final SQLException thrown) {
+            batch.forEach(this::enqueue);
+            throw thrown;
+        }
+        sent.increment(payloads.length);
+        return true;
+    }
+
+    private String encode(final ClusterMessage message) {
+        try {
+            val payload = objectMapper.writeValueAsString(message);
+            if (payload.getBytes(StandardCharsets.UTF_8).length <= props.getMaxPayloadBytes()) {
+                return payload;
+            }
+            if (message.type() == ClusterMessageType.TASKS) {
+                return objectMapper.writeValueAsString(resync(message.username()));
+            }
+            log.warn("Сообщение шины событий типа {} превышает допустимый размер и отброшено", message.type());
+        } catch (final JsonProcessingException thrown) {
+            log.error("Не удалось сериализовать сообщение шины событий", thrown);
+        }
+        return null;
+    }
+
+    private void receive(final String payload) {
+        final ClusterMessage message;
+        try {
+            message = objectMapper.readValue(payload, ClusterMessage.class);
+        } catch (final JsonProcessingException thrown) {
+            log.warn("Не удалось разобрать сообщение шины событий: {}", thrown.getOriginalMessage());
+            return;
+        }
+        if (nodeId.equals(message.origin())) {
+            return;
+        }
+        received.increment();
+        switch (message.type()) {
+            case TASKS -> {
+                taskPageCache.invalidate(message.username());
+                val event = message.event() == null ? resync(message.username()).event() : message.event();
+                taskEventBroker.publish(TaskEvent.builder()
+                        .username(message.username())
+                        .type(event.type())
+                        .taskId(event.taskId())
+                        .task(event.task())
+                        .build());
+            }
+            case TOKEN_REVOKED -> revokedTokenStore.remember(message.digest(), message.expiresAt());
+        }
+    }
+
+    private void resyncLocal() {
+        log.info("Шина событий переподключена, локальные кэши сброшены");
+        taskPageCache.invalidateAll();
+        taskEventBroker.resyncAll();
+        revokedTokenStore.sync();
+    }
+
+    private static String key(final ClusterMessage message) {
+        return message.type() == ClusterMessageType.TASKS
+                ? "tasks:" + message.username()
+                : "revoked:" + message.digest();
+    }
+
+    private static Duration min(final Duration left, final Duration right) {
+        return left.compareTo(right) <= 0 ? left : right;
+    }
+}
@@ -1,9 +1,16 @@
 package com.example.demo.service;
 
+import com.example.demo.dto.VerifiedToken;
 import com.example.demo.utils.JwtProperties;
+import com.example.demo.utils.TokenDigests;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
 import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.security.Keys;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import jakarta.annotation.PostConstruct;
 import lombok.val;
 import lombok.Getter;
@@ -17,18 +24,25 @@ import java.nio.charset.StandardCharsets;
 import java.time.Duration;
 import java.time.Instant;
 import java.util.Date;
-import java.util.Map;
-import java.util.concurrent.ConcurrentHashMap;
+import java.util.Optional;
+import java.util.UUID;
+
+import static java.util.Optional.ofNullable;
 
 @Service
 @RequiredArgsConstructor
 @FieldDefaults(makeFinal = true)
 public class JwtService {
     JwtProperties props;
+    RevokedTokenStore revokedTokens;
+    MeterRegistry meterRegistry;
 
     @NonFinal
     SecretKey key;
 
+    @NonFinal
+    JwtParser parser;
+
     @NonFinal
     Duration accessTtl;
 
@@ -36,93 +50,123 @@ public class JwtService {
     @NonFinal
     Duration refreshTtl;
 
-    Map<String, Instant> revokedAccess = new ConcurrentHashMap<>();
+    @NonFinal
+    Cache<String, VerifiedToken> verifiedAccess;
+
+    @NonFinal
+    Timer signAccessTimer;
+
+    @NonFinal
+    Timer signRefreshTimer;
+
+    @NonFinal
+    Timer parseValidTimer;
+
+    @NonFinal
+    Timer parseInvalidTimer;
 
     @PostConstruct
     public void init() {
         this.key = Keys.hmacShaKeyFor(props.getSecret().getBytes(StandardCharsets.UTF_8));
+        this.parser = Jwts.parser()
+                .verifyWith(key)
+                .build();
         this.accessTtl = Duration.ofMinutes(props.getAccessExpirationMinutes());
         this.refreshTtl = Duration.ofDays(props.getRefreshExpirationDays());
+        this.verifiedAccess = Caffeine.newBuilder()
+                .maximumSize(props.getVerifiedCacheSize())
+                .expireAfterWrite(accessTtl)
+                .build();
+        this.signAccessTimer = timer("jwt.sign", "type", "access");
+        this.signRefreshTimer = timer("jwt.sign", "type", "refresh");
+        this.parseValidTimer = timer("jwt.parse", "outcome", "valid");
+        this.parseInvalidTimer = timer("jwt.parse", "outcome", "invalid");
     }
 
     public String generateAccessToken(final String username) {
+        val sample = Timer.start(meterRegistry);
         val now = Instant.now();
-        return Jwts.builder()
+        val token = Jwts.builder()
+                .id(UUID.randomUUID().toString())
                 .subject(username)
                 .issuedAt(Date.from(now))
                 .expiration(Date.from(now.plus(accessTtl)))
                 .claim("typ", "access")
                 .signWith(key)
                 .compact();
+        sample.stop(signAccessTimer);
+        return token;
     }
 
     public String generateRefreshToken(final String username) {
+        val sample = Timer.start(meterRegistry);
         val now = Instant.now();
-        return Jwts.builder()
+        val token = Jwts.builder()
+                .id(UUID.randomUUID().toString())
                 .subject(username)
                 .issuedAt(Date.from(now))
                 .expiration(Date.from(now.plus(refreshTtl)))
                 .claim("typ", "refresh")
                 .signWith(key)
                 .compact();
+        sample.stop(signRefreshTimer);
+        return token;
     }
 
-    public boolean isTokenValid(final String token) {
+    public Optional<VerifiedToken> verify(final String token) {
+        val sample = Timer.start(meterRegistry);
         try {
-            Jwts.parser()
-                    .verifyWith(key)
-                    .build()
-                    .parseSignedClaims(token);
-            return true;
-        } catch (final JwtException thrown) {
-            return false;
+            val claims = parser.parseSignedClaims(token).getPayload();
+            sample.stop(parseValidTimer);
+            return Optional.of(VerifiedToken.builder()
+                    .subject(claims.getSubject())
+                    .type(claims.get("typ", String.class))
+                    .expiration(ofNullable(claims.getExpiration()).map(Date::toInstant).orElse(null))
+                    .build());
+        } catch (final JwtException | IllegalArgumentException thrown) {
+            sample.stop(parseInvalidTimer);
+            return Optional.empty();
         }
     }
 
-    public String extractUsername(final String token) {
-        val jwt = Jwts.parser()
-                .verifyWith(key)
-                .build()
-                .parseSignedClaims(token);
-        return jwt.getPayload().getSubject();
+    public Optional<VerifiedToken> verifyAccess(final String token) {
+        val digest = TokenDigests.sha256Hex(token);
+        val cached = verifiedAccess.getIfPresent(digest);
+        if (cached != null) {
+            if (!cached.isExpiredAt(Instant.now())) {
+                return Optional.of(cached);
+            }
+            verifiedAccess.invalidate(digest);
+            return Optional.empty();
+        }
+
+        val verified = verify(token).filter(VerifiedToken::isAccess);
+        verified.ifPresent(access -> verifiedAccess.put(digest, access));
+        return verified;
     }
 
-    public boolean isRefreshToken(final String token) {
-        try {
-            val jwt = Jwts.parser()
-                    .verifyWith(key)
-                    .build()
-                    .parseSignedClaims(token);
-            val typ = jwt.getPayload().get("typ");
-            return "refresh".equals(typ);
-        } catch (final JwtException thrown) {
-            return false;
-        }
+    public Optional<VerifiedToken> verifyRefresh(final String token) {
+        return verify(token).filter(VerifiedToken::isRefresh);
     }
 
     public void revokeAccessToken(final String token) {
-        try {
-            val jwt = Jwts.parser()
-                    .verifyWith(key)
-                    .build()
-                    .parseSignedClaims(token);
-            val exp = jwt.getPayload().getExpiration();
-            if (exp != null) {
-                revokedAccess.put(token, exp.toInstant());
-            }
-        } catch (final JwtException ignored) {
-        }
+        verifyAccess(token)
+                .map(VerifiedToken::expiration)
+                .ifPresent(exp -> {
+                    val digest = TokenDigests.sha256Hex(token);
+                    revokedTokens.revoke(digest, exp);
+                    verifiedAccess.invalidate(digest);
+                });
     }
 
     public boolean isAccessRevoked(final String token) {
-        val exp = revokedAccess.get(token);
-        if (exp == null) {
-            return false;
-        }
-        if (exp.isBefore(Instant.now())) {
-            revokedAccess.remove(token);
-            return false;
-        }
-        return true;
+        return revokedTokens.isRevoked(TokenDigests.sha256Hex(token));
+    }
+
+    private Timer timer(final String name, final String tagKey, final String tagValue) {
+        return Timer.builder(name)
+                .tag(tagKey, tagValue)
+                .publishPercentileHistogram()
+                .register(meterRegistry);
     }
 }
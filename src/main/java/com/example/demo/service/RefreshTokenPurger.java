@@ -0,0 +1,83 @@
+package com.example.demo.service;
+
+import com.example.demo.repository.RefreshTokenRepository;
+import com.example.demo.utils.RefreshTokenPurgeProperties;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.val;
+import lombok.RequiredArgsConstructor;
+import lombok.experimental.FieldDefaults;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataAccessException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Instant;
+
+@Service
+@RequiredArgsConstructor
+@FieldDefaults(makeFinal = true)
+@Slf4j
+public class RefreshTokenPurger {
+    RefreshTokenRepository repository;
+    RefreshTokenPurgeProperties props;
+    MeterRegistry meterRegistry;
+
+    @Scheduled(fixedDelayString = "${refresh-tokens.purge.interval:PT1H}",
+            initialDelayString = "${refresh-tokens.purge.initial-delay:PT1M}")
+    public void scheduledPurge() {
+        if (!props.isEnabled()) {
+            return;
+        }
+        try {
+            purge();
+        } catch (final DataAccessException thrown) {
+            log.warn("Не удалось очистить refresh token: {}", thrown.getMessage());
+        }
+    }
+
+    public long purge() {
+        val dryRun = props.isDryRun();
+        val mode = dryRun ? "dry-run" : "delete";
+        val sample = Timer.start(meterRegistry);
+        val now = Instant.now();
+        var after = "";
+        long rows = 0;
+        int batches = 0;
+        while (true) {
+            val ids = dryRun
+                    ? repository.findPurgeable(now, after, props.getBatchSize())
+                    : repository.purgeBatch(now, after, props.getBatchSize());
+            batches++;
+            rows += ids.size();
+            if (ids.size() < props.getBatchSize() || batches >= props.getMaxBatches() || !pause()) {
+                break;
+            }
+            after = ids.getLast();
+        }
+
+        val elapsed = sample.stop(meterRegistry.timer("refresh_tokens.purge.duration", "mode", mode));
+        meterRegistry.counter("refresh_tokens.purge.rows", "mode", mode).increment(rows);
+        meterRegistry.counter("refresh_tokens.purge.batches", "mode", mode).increment(batches);
+        if (log.isInfoEnabled()) {
+            log.info(dryRun
+                            ? "Пробная очистка refresh token: к удалению {} строк, пакетов {}, {} мс"
+                            : "Очистка refresh token: удалено {} строк, пакетов {}, {} мс",
+                    rows, batches, elapsed / 1_000_000);
+        }
+        return rows;
+    }
+
+    private boolean pause() {
+        if (props.getPause().isZero()) {
+            return true;
+        }
+        try {
+            Thread.sleep(props.getPause());
+            return true;
+        } catch (final InterruptedException thrown) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+}
@@ -1,10 +1,17 @@
 package com.example.demo.service;
 
+import com.example.demo.dto.VerifiedToken;
 import com.example.demo.model.RefreshToken;
 import com.example.demo.repository.RefreshTokenRepository;
+import com.example.demo.utils.JwtProperties;
+import com.example.demo.utils.TokenDigests;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import jakarta.annotation.PostConstruct;
 import lombok.val;
 import lombok.RequiredArgsConstructor;
 import lombok.experimental.FieldDefaults;
+import lombok.experimental.NonFinal;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 
@@ -19,52 +26,71 @@ import java.util.UUID;
 public class RefreshTokenService {
     RefreshTokenRepository repo;
     JwtService jwtService;
+    JwtProperties props;
 
-    public RefreshToken createOrReplace(final String username) {
-        val newToken = jwtService.generateRefreshToken(username);
-        val newExpiry = Instant.now().plus(jwtService.getRefreshTtl());
-
-        val maybeExisting = repo.findByUsername(username);
-
-        if (maybeExisting.isPresent()) {
-            val existing = maybeExisting.get();
-            existing.setToken(newToken);
-            existing.setExpiry(newExpiry);
-            existing.setRevoked(false);
-            return repo.save(existing);
-        }
+    @NonFinal
+    Cache<String, Boolean> rejected;
 
-        val refreshToken = RefreshToken.builder()
-                .id(UUID.randomUUID().toString())
-                .username(username)
-                .token(newToken)
-                .expiry(newExpiry)
-                .revoked(false)
+    @PostConstruct
+    public void init() {
+        this.rejected = Caffeine.newBuilder()
+                .maximumSize(props.getRejectedCacheSize())
+                .expireAfterWrite(props.getRejectedCacheTtl())
                 .build();
-        return repo.save(refreshToken);
     }
 
-    public RefreshToken rotate(final String username, final String oldToken) {
-        repo.findByToken(oldToken).ifPresent(refreshToken -> {
-            refreshToken.setRevoked(true);
-            repo.save(refreshToken);
-        });
+    public RefreshToken createOrReplace(final String username) {
+        val token = jwtService.generateRefreshToken(username);
+        val saved = repo.upsert(UUID.randomUUID().toString(), username, TokenDigests.sha256Hex(token),
+                Instant.now().plus(jwtService.getRefreshTtl()));
+        saved.setToken(token);
+        return saved;
+    }
+
+    public Optional<RefreshToken> rotate(final String username, final String oldToken) {
+        val token = jwtService.generateRefreshToken(username);
+        val rotated = repo.rotate(username, TokenDigests.sha256Hex(oldToken), TokenDigests.sha256Hex(token),
+                Instant.now().plus(jwtService.getRefreshTtl()));
+        if (rotated.isEmpty()) {
+            rejected.put(TokenDigests.sha256Hex(oldToken), Boolean.TRUE);
+            log.warn("Refresh token пользователя {} уже заменён или отозван", username);
+        }
+        rotated.ifPresent(refreshToken -> refreshToken.setToken(token));
+        return rotated;
+    }
 
-        return createOrReplace(username);
+    public Optional<VerifiedToken> verify(final String token) {
+        val digest = TokenDigests.sha256Hex(token);
+        if (rejected.getIfPresent(digest) != null) {
+            return Optional.empty();
+        }
+        val verified = jwtService.verifyRefresh(token);
+        if (verified.isEmpty()) {
+            rejected.put(digest, Boolean.TRUE);
+        }
+        return verified;
     }
 
     public Optional<RefreshToken> findValid(final String token) {
-        return repo.findByToken(token)
+        val verified = verify(token);
+        if (verified.isEmpty()) {
+            return Optional.empty();
+        }
+
+        val digest = TokenDigests.sha256Hex(token);
+        val stored = repo.findByTokenHash(digest)
                 .filter(refreshToken -> !refreshToken.isRevoked())
                 .filter(refreshToken -> refreshToken.getExpiry().isAfter(Instant.now()))
-                .filter(refreshToken -> jwtService.isTokenValid(token))
-                .filter(refreshToken -> jwtService.isRefreshToken(token));
+                .filter(refreshToken -> refreshToken.getUsername().equals(verified.get().subject()));
+        if (stored.isEmpty()) {
+            rejected.put(digest, Boolean.TRUE);
+        }
+        return stored;
     }
 
     public void revoke(final String token) {
-        repo.findByToken(token).ifPresent(refreshToken -> {
-            refreshToken.setRevoked(true);
-            repo.save(refreshToken);
-        });
+        val digest = TokenDigests.sha256Hex(token);
+        repo.revokeByTokenHash(digest);
+        rejected.put(digest, Boolean.TRUE);
     }
 }
@@ -0,0 +1,169 @@
+package com.example.demo.service;
+
+import com.example.demo.dto.TokenRevokedEvent;
+import com.example.demo.repository.RevokedAccessTokenRepository;
+import com.example.demo.utils.RevocationProperties;
+import lombok.val;
+import lombok.RequiredArgsConstructor;
+import lombok.experimental.FieldDefaults;
+import lombok.experimental.NonFinal;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataAccessException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.util.Comparator;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+@Service
+@RequiredArgsConstructor
+@FieldDefaults(makeFinal = true)
+@Slf4j
+public class RevokedTokenStore {
+    RevocationProperties props;
+    RevokedAccessTokenRepository repository;
+    ApplicationEventPublisher eventPublisher;
+    Clock clock;
+
+    Map<String, Instant> revoked = new ConcurrentHashMap<>();
+    NavigableSet<Entry> byExpiry = new ConcurrentSkipListSet<>();
+    AtomicLong spilled = new AtomicLong();
+    AtomicReference<Instant> spilledUntil = new AtomicReference<>(Instant.EPOCH);
+
+    @NonFinal
+    volatile Instant syncedThrough = Instant.EPOCH;
+
+    public void revoke(final String digest, final Instant expiresAt) {
+        if (props.isShared() && !persist(digest, expiresAt)) {
+            keep(digest, expiresAt);
+        } else {
+            remember(digest, expiresAt);
+        }
+        eventPublisher.publishEvent(TokenRevokedEvent.builder()
+                .digest(digest)
+                .expiresAt(expiresAt)
+                .build());
+    }
+
+    public boolean isRevoked(final String digest) {
+        val now = clock.instant();
+        val expiresAt = revoked.get(digest);
+        if (expiresAt != null) {
+            return expiresAt.isAfter(now);
+        }
+        return now.isBefore(spilledUntil.get()) && isRevokedShared(digest, now);
+    }
+
+    public int size() {
+        return revoked.size();
+    }
+
+    @Scheduled(fixedDelayString = "${jwt.revocation.sweep-interval:PT30S}")
+    public void sweep() {
+        val now = clock.instant();
+        int removed = 0;
+        val iterator = byExpiry.iterator();
+        while (iterator.hasNext()) {
+            val eldest = iterator.next();
+            if (eldest.expiresAt().isAfter(now)) {
+                break;
+            }
+            iterator.remove();
+            revoked.remove(eldest.digest(), eldest.expiresAt());
+            removed++;
+        }
+        if (props.isShared()) {
+            try {
+                repository.deleteExpired(now);
+            } catch (final DataAccessException thrown) {
+                log.warn("Не удалось очистить просроченные отзывы в общем хранилище: {}", thrown.getMessage());
+            }
+        }
+
+        val overflow = spilled.getAndSet(0);
+        if (overflow > 0) {
+            log.warn("Достигнут лимит отозванных токенов ({}), проверяются по общему хранилищу: {}",
+                    props.getMaxEntries(), overflow);
+        }
+        if (revoked.size() > props.getMaxEntries()) {
+            log.error("Превышен лимит отозванных токенов ({}): хранится {}, увеличьте jwt.revocation.max-entries",
+                    props.getMaxEntries(), revoked.size());
+        }
+        if (log.isDebugEnabled()) {
+            log.debug("Удалено просроченных отзывов: {}, осталось: {}", removed, revoked.size());
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${jwt.revocation.sync-interval:PT5S}")
+    public void sync() {
+        if (!props.isShared()) {
+            return;
+        }
+        try {
+            val since = syncedThrough.minus(props.getSyncOverlap());
+            var latest = syncedThrough;
+            for (val row : repository.findByRevokedAtAfterAndExpiresAtAfter(since, clock.instant())) {
+                remember(row.getDigest(), row.getExpiresAt());
+                if (row.getRevokedAt().isAfter(latest)) {
+                    latest = row.getRevokedAt();
+                }
+            }
+            syncedThrough = latest;
+        } catch (final DataAccessException thrown) {
+            log.warn("Не удалось синхронизировать отозванные токены: {}", thrown.getMessage());
+        }
+    }
+
+    void remember(final String digest, final Instant expiresAt) {
+        if (props.isShared() && revoked.size() >= props.getMaxEntries() && !revoked.containsKey(digest)) {
+            spilledUntil.accumulateAndGet(expiresAt, (current, next) -> next.isAfter(current) ? next : current);
+            spilled.incrementAndGet();
+            return;
+        }
+        keep(digest, expiresAt);
+    }
+
+    private void keep(final String digest, final Instant expiresAt) {
+        if (!expiresAt.isAfter(clock.instant()) || revoked.putIfAbsent(digest, expiresAt) != null) {
+            return;
+        }
+        byExpiry.add(new Entry(expiresAt, digest));
+    }
+
+    private boolean persist(final String digest, final Instant expiresAt) {
+        try {
+            repository.insertIfAbsent(digest, expiresAt, clock.instant());
+            return true;
+        } catch (final DataAccessException thrown) {
+            log.error("Не удалось сохранить отозванный токен в общем хранилище", thrown);
+            return false;
+        }
+    }
+
+    private boolean isRevokedShared(final String digest, final Instant now) {
+        try {
+            return repository.existsByDigestAndExpiresAtAfter(digest, now);
+        } catch (final DataAccessException thrown) {
+            log.error("Не удалось проверить отзыв токена в общем хранилище, токен отклонён: {}", thrown.getMessage());
+            return true;
+        }
+    }
+
+    private record Entry(Instant expiresAt, String digest) implements Comparable<Entry> {
+        private static final Comparator<Entry> ORDER = Comparator.comparing(Entry::expiresAt)
+                .thenComparing(Entry::digest);
+
+        @Override
+        public int compareTo(final Entry other) {
+            return ORDER.compare(this, other);
+        }
+    }
+}
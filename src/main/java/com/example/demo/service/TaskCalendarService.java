@@ -0,0 +1,89 @@
+package com.example.demo.service;
+
+import com.example.demo.dto.CalendarResponse;
+import com.example.demo.exception.InvalidDateRangeException;
+import com.example.demo.mapper.TaskMapper;
+import com.example.demo.model.Task;
+import com.example.demo.repository.TaskRepository;
+import com.example.demo.utils.ExportProperties;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManager;
+import lombok.val;
+import lombok.RequiredArgsConstructor;
+import lombok.experimental.FieldDefaults;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.stream.Stream;
+
+@Service
+@RequiredArgsConstructor
+@FieldDefaults(makeFinal = true)
+@Slf4j
+public class TaskCalendarService {
+    private static final int MAX_RANGE_DAYS = 366;
+
+    TaskRepository taskRepository;
+    TaskMapper taskMapper;
+    ObjectMapper objectMapper;
+    EntityManager entityManager;
+    ExportProperties props;
+
+    @Transactional(readOnly = true)
+    public CalendarResponse getCalendar(final String ldapUid, final LocalDate from, final LocalDate to) {
+        validateRange(from, to);
+        if (log.isDebugEnabled()) {
+            log.debug("Календарь задач пользователя {} с {} по {}", ldapUid, from, to);
+        }
+        return CalendarResponse.builder()
+                .from(from)
+                .to(to)
+                .days(taskRepository.countByDeadline(ldapUid, from, to, LocalDate.now()))
+                .build();
+    }
+
+    @Transactional(readOnly = true)
+    public long writeExpandedCalendar(final String ldapUid, final LocalDate from, final LocalDate to,
+                                      final OutputStream out) throws IOException {
+        val calendar = getCalendar(ldapUid, from, to);
+        long written = 0;
+        try (JsonGenerator json = objectMapper.createGenerator(out);
+             Stream<Task> tasks = taskRepository.streamByDeadlineBetween(ldapUid, from, to)) {
+            json.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            json.writeStartObject();
+            json.writeObjectField("from", calendar.from());
+            json.writeObjectField("to", calendar.to());
+            json.writeObjectField("days", calendar.days());
+            json.writeArrayFieldStart("tasks");
+            val iterator = tasks.iterator();
+            while (iterator.hasNext()) {
+                json.writeObject(taskMapper.toResponse(iterator.next()));
+                if (++written % props.getChunkSize() == 0) {
+                    entityManager.clear();
+                    json.flush();
+                }
+            }
+            json.writeEndArray();
+            json.writeEndObject();
+        }
+        if (log.isInfoEnabled()) {
+            log.info("Календарь пользователя {} с {} по {}: выгружено {} задач", ldapUid, from, to, written);
+        }
+        return written;
+    }
+
+    public static void validateRange(final LocalDate from, final LocalDate to) {
+        if (to.isBefore(from)) {
+            throw new InvalidDateRangeException("Дата окончания раньше даты начала");
+        }
+        if (ChronoUnit.DAYS.between(from, to) >= MAX_RANGE_DAYS) {
+            throw new InvalidDateRangeException("Диапазон превышает " + MAX_RANGE_DAYS + " дней");
+        }
+    }
+}
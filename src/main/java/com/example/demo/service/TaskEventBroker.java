@@ -0,0 +1,186 @@
+package com.example.demo.service;
+
+import com.example.demo.dto.TaskEvent;
+import com.example.demo.dto.TaskEventType;
+import com.example.demo.utils.TaskEventProperties;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PreDestroy;
+import lombok.val;
+import lombok.RequiredArgsConstructor;
+import lombok.experimental.FieldDefaults;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter.DataWithMediaType;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+@Service
+@FieldDefaults(makeFinal = true)
+@Slf4j
+public class TaskEventBroker {
+    TaskEventProperties props;
+    ObjectMapper objectMapper;
+    ExecutorService senders;
+
+    Map<String, Queue<Subscriber>> subscribers = new ConcurrentHashMap<>();
+
+    @Autowired
+    public TaskEventBroker(final TaskEventProperties props, final ObjectMapper objectMapper) {
+        this(props, objectMapper, Executors.newVirtualThreadPerTaskExecutor());
+    }
+
+    TaskEventBroker(final TaskEventProperties props, final ObjectMapper objectMapper, final ExecutorService senders) {
+        this.props = props;
+        this.objectMapper = objectMapper;
+        this.senders = senders;
+    }
+
+    public SseEmitter subscribe(final String username) {
+        val subscriber = new Subscriber(username, new SseEmitter(props.getEmitterTimeout().toMillis()),
+                new ArrayBlockingQueue<>(props.getBufferSize()));
+        subscriber.emitter.onCompletion(() -> remove(subscriber));
+        subscriber.emitter.onTimeout(subscriber::close);
+        subscriber.emitter.onError(thrown -> subscriber.close());
+
+        val userSubscribers = subscribers.compute(username, (key, existing) -> {
+            val queue = existing == null ? new ConcurrentLinkedDeque<Subscriber>() : existing;
+            queue.add(subscriber);
+            return queue;
+        });
+        while (userSubscribers.size() > props.getMaxSubscriptionsPerUser()) {
+            val eldest = userSubscribers.poll();
+            if (eldest != null) {
+                eldest.close();
+            }
+        }
+
+        subscriber.offer(SseEmitter.event().comment("connected").build());
+        if (log.isDebugEnabled()) {
+            log.debug("Пользователь {} подписался на события задач, подписок: {}", username, userSubscribers.size());
+        }
+        return subscriber.emitter;
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void publish(final TaskEvent event) {
+        val userSubscribers = subscribers.get(event.username());
+        if (userSubscribers == null || userSubscribers.isEmpty()) {
+            return;
+        }
+        final String json;
+        try {
+            json = objectMapper.writeValueAsString(event);
+        } catch (final JsonProcessingException thrown) {
+            log.error("Не удалось сериализовать событие задачи", thrown);
+            return;
+        }
+        val message = SseEmitter.event()
+                .name(event.type().name().toLowerCase())
+                .data(json, MediaType.APPLICATION_JSON)
+                .build();
+        for (val subscriber : userSubscribers) {
+            subscriber.offer(message);
+        }
+    }
+
+    public void resyncAll() {
+        subscribers.keySet().forEach(username -> publish(TaskEvent.builder()
+                .username(username)
+                .type(TaskEventType.RESYNC)
+                .build()));
+    }
+
+    @Scheduled(fixedDelayString = "${tasks.events.heartbeat-interval:PT15S}")
+    public void heartbeat() {
+        val message = SseEmitter.event().comment("heartbeat").build();
+        subscribers.values().forEach(userSubscribers -> userSubscribers.forEach(subscriber -> subscriber.offer(message)));
+    }
+
+    public int subscriberCount() {
+        return subscribers.values().stream().mapToInt(Queue::size).sum();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        subscribers.values().forEach(userSubscribers -> userSubscribers.forEach(Subscriber::close));
+        senders.shutdownNow();
+    }
+
+    private void remove(final Subscriber subscriber) {
+        subscribers.computeIfPresent(subscriber.username, (key, userSubscribers) -> {
+            userSubscribers.remove(subscriber);
+            return userSubscribers.isEmpty() ? null : userSubscribers;
+        });
+    }
+
+    @RequiredArgsConstructor
+    @FieldDefaults(makeFinal = true)
+    private final class Subscriber {
+        String username;
+        SseEmitter emitter;
+        BlockingQueue<Set<DataWithMediaType>> buffer;
+        AtomicBoolean draining = new AtomicBoolean();
+        AtomicBoolean closed = new AtomicBoolean();
+
+        void offer(final Set<DataWithMediaType> message) {
+            if (closed.get()) {
+                return;
+            }
+            if (!buffer.offer(message)) {
+                log.warn("Подписчик пользователя {} не успевает читать события, соединение закрыто", username);
+                close();
+                return;
+            }
+            scheduleDrain();
+        }
+
+        void close() {
+            if (closed.compareAndSet(false, true)) {
+                buffer.clear();
+                remove(this);
+                emitter.complete();
+            }
+        }
+
+        private void scheduleDrain() {
+            if (draining.compareAndSet(false, true)) {
+                senders.execute(this::drain);
+            }
+        }
+
+        private void drain() {
+            try {
+                Set<DataWithMediaType> message;
+                while (!closed.get() && (message = buffer.poll()) != null) {
+                    emitter.send(message);
+                }
+            } catch (final IOException | IllegalStateException thrown) {
+                if (log.isDebugEnabled()) {
+                    log.debug("Подписчик пользователя {} отключился: {}", username, thrown.getMessage());
+                }
+                close();
+            } finally {
+                draining.set(false);
+            }
+            if (!closed.get() && !buffer.isEmpty()) {
+                scheduleDrain();
+            }
+        }
+    }
+}
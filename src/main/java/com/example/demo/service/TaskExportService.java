@@ -0,0 +1,80 @@
+package com.example.demo.service;
+
+import com.example.demo.dto.TaskResponse;
+import com.example.demo.mapper.TaskMapper;
+import com.example.demo.model.Task;
+import com.example.demo.repository.TaskRepository;
+import com.example.demo.utils.ExportProperties;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManager;
+import lombok.val;
+import lombok.RequiredArgsConstructor;
+import lombok.experimental.FieldDefaults;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.stream.Stream;
+
+@Service
+@RequiredArgsConstructor
+@FieldDefaults(makeFinal = true)
+@Slf4j
+public class TaskExportService {
+    TaskRepository taskRepository;
+    TaskMapper taskMapper;
+    ObjectMapper objectMapper;
+    EntityManager entityManager;
+    ExportProperties props;
+
+    public boolean canExportAll(final String username) {
+        return props.getAdmins().contains(username);
+    }
+
+    @Transactional(readOnly = true)
+    public long exportUserTasks(final String ldapUid, final OutputStream out) throws IOException {
+        try (Stream<Task> tasks = taskRepository.streamByldapUid(ldapUid)) {
+            val written = writeNdjson(tasks, out);
+            if (log.isInfoEnabled()) {
+                log.info("Выгружено {} задач пользователя {}", written, ldapUid);
+            }
+            return written;
+        }
+    }
+
+    @Transactional(readOnly = true)
+    public long exportAllTasks(final OutputStream out) throws IOException {
+        try (Stream<Task> tasks = taskRepository.streamAll()) {
+            val written = writeNdjson(tasks, out);
+            if (log.isInfoEnabled()) {
+                log.info("Выгружено {} задач всех пользователей", written);
+            }
+            return written;
+        }
+    }
+
+    private long writeNdjson(final Stream<Task> tasks, final OutputStream out) throws IOException {
+        val writer = objectMapper.writerFor(TaskResponse.class);
+        val chunk = new ArrayList<Task>(props.getChunkSize());
+        val iterator = tasks.iterator();
+        long written = 0;
+        while (iterator.hasNext()) {
+            chunk.add(iterator.next());
+            if (chunk.size() < props.getChunkSize() && iterator.hasNext()) {
+                continue;
+            }
+            for (val task : chunk) {
+                out.write(writer.writeValueAsBytes(taskMapper.toResponse(task)));
+                out.write('\n');
+            }
+            written += chunk.size();
+            chunk.clear();
+            entityManager.clear();
+            out.flush();
+        }
+        return written;
+    }
+}
@@ -0,0 +1,251 @@
+package com.example.demo.service;
+
+import com.example.demo.dto.ImportFormat;
+import com.example.demo.dto.SubtaskDto;
+import com.example.demo.dto.TaskDto;
+import com.example.demo.dto.TaskEvent;
+import com.example.demo.dto.TaskEventType;
+import com.example.demo.dto.TaskImportError;
+import com.example.demo.dto.TaskImportResult;
+import com.example.demo.utils.ImportProperties;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.dataformat.csv.CsvMapper;
+import lombok.val;
+import lombok.RequiredArgsConstructor;
+import lombok.experimental.FieldDefaults;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.lang3.StringUtils;
+import org.postgresql.PGConnection;
+import org.postgresql.copy.CopyManager;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.StringReader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.sql.SQLException;
+import java.time.DateTimeException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.UUID;
+
+@Service
+@RequiredArgsConstructor
+@FieldDefaults(makeFinal = true)
+@Slf4j
+public class TaskImportService {
+    private static final int MAX_TEXT_LENGTH = 255;
+    private static final String COPY_TASKS =
+            "COPY todos (id, title, completed, created_at, deadline, ldap_uid) FROM STDIN";
+    private static final String COPY_SUBTASKS =
+            "COPY subtasks (id, text, completed, task_id) FROM STDIN";
+    private static final String COPY_NULL = "\\N";
+    private static final String[] COPY_SPECIALS = {"\\", "\t", "\n", "\r"};
+    private static final String[] COPY_ESCAPES = {"\\\\", "\\t", "\\n", "\\r"};
+    private static final ObjectReader CSV_ROW = new CsvMapper().readerFor(String[].class);
+
+    ObjectMapper objectMapper;
+    JdbcTemplate jdbcTemplate;
+    TransactionTemplate transactionTemplate;
+    TaskPageCache taskPageCache;
+    ImportProperties props;
+    ApplicationEventPublisher eventPublisher;
+
+    public TaskImportResult importTasks(final String ldapUid, final ImportFormat format, final InputStream in)
+            throws IOException {
+        val started = System.nanoTime();
+        val reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8));
+        val chunk = new ArrayList<TaskDto>(props.getChunkSize());
+        val errors = new ArrayList<TaskImportError>();
+        long lineNumber = 0;
+        long chunkStart = 0;
+        long imported = 0;
+        long subtasks = 0;
+        long rejected = 0;
+        Long stoppedAtLine = null;
+
+        String line;
+        do {
+            line = reader.readLine();
+            if (line != null) {
+                lineNumber++;
+                if (StringUtils.isBlank(line) || format == ImportFormat.CSV && lineNumber == 1 && isCsvHeader(line)) {
+                    continue;
+                }
+                try {
+                    val task = validate(parse(format, line));
+                    if (chunk.isEmpty()) {
+                        chunkStart = lineNumber;
+                    }
+                    chunk.add(task);
+                } catch (final IOException | IllegalArgumentException | DateTimeException thrown) {
+                    rejected++;
+                    val message = thrown instanceof JsonProcessingException json ? json.getOriginalMessage() : thrown.getMessage();
+                    if (errors.size() < props.getMaxReportedErrors()) {
+                        errors.add(TaskImportError.builder().line(lineNumber).error(message).build());
+                    }
+                    if (log.isDebugEnabled()) {
+                        log.debug("Строка {} импорта отклонена: {}", lineNumber, message);
+                    }
+                    continue;
+                }
+            }
+            if (!chunk.isEmpty() && (line == null || chunk.size() >= props.getChunkSize())) {
+                try {
+                    subtasks += copyChunk(ldapUid, chunk);
+                    imported += chunk.size();
+                } catch (final DataAccessException | UncheckedIOException thrown) {
+                    log.error("Импорт задач пользователя {} остановлен на строке {}", ldapUid, chunkStart, thrown);
+                    stoppedAtLine = chunkStart;
+                    errors.add(TaskImportError.builder()
+                            .line(chunkStart)
+                            .error("Не удалось сохранить задачи начиная с этой строки, импорт остановлен")
+                            .build());
+                }
+                chunk.clear();
+            }
+        } while (line != null && stoppedAtLine == null);
+        if (imported > 0) {
+            taskPageCache.invalidate(ldapUid);
+            eventPublisher.publishEvent(TaskEvent.builder()
+                    .username(ldapUid)
+                    .type(TaskEventType.RESYNC)
+                    .build());
+        }
+
+        val elapsedMillis = (System.nanoTime() - started) / 1_000_000;
+        if (log.isInfoEnabled()) {
+            log.info("Импорт задач пользователя {}: загружено {} задач и {} подзадач, отклонено {} строк за {} мс ({} задач/с)",
+                    ldapUid, imported, subtasks, rejected, elapsedMillis, imported * 1000 / Math.max(1, elapsedMillis));
+        }
+        return TaskImportResult.builder()
+                .imported(imported)
+                .subtasks(subtasks)
+                .rejected(rejected)
+                .errors(errors)
+                .stoppedAtLine(stoppedAtLine)
+                .elapsedMillis(elapsedMillis)
+                .build();
+    }
+
+    private TaskDto parse(final ImportFormat format, final String line) throws IOException {
+        if (format == ImportFormat.NDJSON) {
+            return objectMapper.readValue(line, TaskDto.class);
+        }
+        final String[] columns = CSV_ROW.readValue(line);
+        if (columns.length == 0 || columns.length > 3) {
+            throw new IllegalArgumentException("Ожидается от 1 до 3 колонок: title,deadline,subtasks");
+        }
+        val deadline = columns.length > 1 && StringUtils.isNotBlank(columns[1])
+                ? LocalDate.parse(columns[1].strip())
+                : null;
+        val subtasks = columns.length > 2
+                ? Arrays.stream(StringUtils.split(columns[2], '|'))
+                        .map(text -> SubtaskDto.builder().text(text.strip()).build())
+                        .toList()
+                : List.<SubtaskDto>of();
+        return TaskDto.builder()
+                .title(columns[0])
+                .deadline(deadline)
+                .subtasks(subtasks)
+                .build();
+    }
+
+    private static boolean isCsvHeader(final String line) {
+        try {
+            final String[] columns = CSV_ROW.readValue(line);
+            return columns.length > 0 && "title".equalsIgnoreCase(columns[0].strip());
+        } catch (final IOException thrown) {
+            return false;
+        }
+    }
+
+    private static TaskDto validate(final TaskDto task) {
+        if (task == null) {
+            throw new IllegalArgumentException("Пустая строка импорта");
+        }
+        requireText(task.title(), "title");
+        for (val subtask : task.subtasks()) {
+            if (subtask == null) {
+                throw new IllegalArgumentException("Пустая подзадача");
+            }
+            requireText(subtask.text(), "subtask");
+        }
+        return task;
+    }
+
+    private static void requireText(final String value, final String field) {
+        if (StringUtils.isBlank(value)) {
+            throw new IllegalArgumentException("Поле " + field + " не заполнено");
+        }
+        if (value.length() > MAX_TEXT_LENGTH) {
+            throw new IllegalArgumentException("Поле " + field + " длиннее " + MAX_TEXT_LENGTH + " символов");
+        }
+        if (value.indexOf('\0') >= 0) {
+            throw new IllegalArgumentException("Поле " + field + " содержит нулевой символ");
+        }
+    }
+
+    private int copyChunk(final String ldapUid, final List<TaskDto> chunk) {
+        val tasks = new StringBuilder();
+        val subtasks = new StringBuilder();
+        val createdAt = LocalDate.now().toString();
+        val owner = escape(ldapUid);
+        int subtaskCount = 0;
+        for (val task : chunk) {
+            val taskId = UUID.randomUUID().toString();
+            tasks.append(taskId).append('\t')
+                    .append(escape(task.title())).append('\t')
+                    .append("f\t")
+                    .append(createdAt).append('\t')
+                    .append(task.deadline() == null ? COPY_NULL : task.deadline().toString()).append('\t')
+                    .append(owner).append('\n');
+            for (val subtask : task.subtasks()) {
+                subtasks.append(UUID.randomUUID()).append('\t')
+                        .append(escape(subtask.text())).append('\t')
+                        .append("f\t")
+                        .append(taskId).append('\n');
+                subtaskCount++;
+            }
+        }
+
+        val started = System.nanoTime();
+        transactionTemplate.executeWithoutResult(status -> jdbcTemplate.execute((ConnectionCallback<Void>) connection -> {
+            val copy = connection.unwrap(PGConnection.class).getCopyAPI();
+            copyIn(copy, COPY_TASKS, tasks);
+            if (!subtasks.isEmpty()) {
+                copyIn(copy, COPY_SUBTASKS, subtasks);
+            }
+            return null;
+        }));
+        if (log.isDebugEnabled()) {
+            log.debug("COPY {} задач и {} подзадач за {} мс", chunk.size(), subtaskCount,
+                    (System.nanoTime() - started) / 1_000_000);
+        }
+        return subtaskCount;
+    }
+
+    private static void copyIn(final CopyManager copy, final String sql, final CharSequence rows) throws SQLException {
+        try {
+            copy.copyIn(sql, new StringReader(rows.toString()));
+        } catch (final IOException thrown) {
+            throw new UncheckedIOException(thrown);
+        }
+    }
+
+    private static String escape(final String value) {
+        return StringUtils.replaceEach(value, COPY_SPECIALS, COPY_ESCAPES);
+    }
+}
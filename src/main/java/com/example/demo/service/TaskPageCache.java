@@ -0,0 +1,91 @@
+package com.example.demo.service;
+
+import com.example.demo.dto.TaskPageResponse;
+import com.example.demo.dto.TaskPageSnapshot;
+import com.example.demo.utils.TaskCacheProperties;
+import com.example.demo.utils.TokenDigests;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import jakarta.annotation.PostConstruct;
+import lombok.val;
+import lombok.RequiredArgsConstructor;
+import lombok.experimental.FieldDefaults;
+import lombok.experimental.NonFinal;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.util.function.Supplier;
+
+@Component
+@RequiredArgsConstructor
+@FieldDefaults(makeFinal = true)
+@Slf4j
+public class TaskPageCache {
+    TaskCacheProperties props;
+    ObjectMapper objectMapper;
+    PlatformTransactionManager transactionManager;
+
+    @NonFinal
+    Cache<String, Cache<PageKey, TaskPageSnapshot>> byUser;
+
+    @NonFinal
+    TransactionTemplate readOnly;
+
+    @PostConstruct
+    public void init() {
+        this.byUser = Caffeine.newBuilder()
+                .maximumSize(props.getMaxUsers())
+                .expireAfterAccess(props.getTtl())
+                .build();
+        this.readOnly = new TransactionTemplate(transactionManager);
+        this.readOnly.setReadOnly(true);
+    }
+
+    public TaskPageSnapshot get(final String username, final PageKey key, final Supplier<TaskPageResponse> loader) {
+        val pages = byUser.get(username, user -> Caffeine.newBuilder()
+                .maximumSize(props.getPagesPerUser())
+                .expireAfterWrite(props.getTtl())
+                .<PageKey, TaskPageSnapshot>build());
+        return pages.get(key, missing -> snapshot(readOnly.execute(status -> loader.get())));
+    }
+
+    public void invalidate(final String username) {
+        byUser.invalidate(username);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    byUser.invalidate(username);
+                }
+            });
+        }
+        if (log.isDebugEnabled()) {
+            log.debug("Кэш задач пользователя {} сброшен", username);
+        }
+    }
+
+    public void invalidateAll() {
+        byUser.invalidateAll();
+    }
+
+    private TaskPageSnapshot snapshot(final TaskPageResponse page) {
+        try {
+            return TaskPageSnapshot.builder()
+                    .page(page)
+                    .etag(TokenDigests.sha256Hex(objectMapper.writeValueAsString(page)))
+                    .build();
+        } catch (final JsonProcessingException thrown) {
+            throw new IllegalStateException("Не удалось сериализовать страницу задач", thrown);
+        }
+    }
+
+    public record PageKey(String view, LocalDate date, String cursor, int limit) {
+    }
+}
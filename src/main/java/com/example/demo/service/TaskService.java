@@ -1,32 +1,66 @@
 package com.example.demo.service;
 
+import com.example.demo.dto.BatchOperationType;
+import com.example.demo.dto.PatchTaskDto;
+import com.example.demo.dto.TaskBatchOperation;
+import com.example.demo.dto.TaskBatchResult;
 import com.example.demo.dto.TaskDto;
+import com.example.demo.dto.TaskEvent;
+import com.example.demo.dto.TaskEventType;
+import com.example.demo.dto.TaskPageResponse;
+import com.example.demo.dto.TaskPageSnapshot;
 import com.example.demo.dto.TaskResponse;
+import com.example.demo.dto.TaskSearchHit;
 import com.example.demo.dto.UpdateTaskDto;
+import com.example.demo.exception.BatchTooLargeException;
+import com.example.demo.exception.InvalidTaskException;
 import com.example.demo.exception.LdapUidMismatchException;
 import com.example.demo.exception.TaskNotFoundException;
 import com.example.demo.mapper.TaskMapper;
+import com.example.demo.model.Task;
 import com.example.demo.repository.TaskRepository;
+import com.example.demo.utils.SearchCursor;
+import com.example.demo.utils.SearchQuery;
+import com.example.demo.utils.TaskCursor;
+import io.micrometer.core.annotation.Timed;
 import lombok.val;
 import lombok.RequiredArgsConstructor;
 import lombok.experimental.FieldDefaults;
 import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.lang3.StringUtils;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.http.HttpStatus;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.core.Authentication;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDate;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.UUID;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 import static java.util.Optional.ofNullable;
 
 @Service
 @RequiredArgsConstructor
 @FieldDefaults(makeFinal = true)
 @Slf4j
+@Timed(value = "tasks.service", histogram = true)
 public class TaskService {
+    private static final int MAX_PAGE_SIZE = 100;
+    private static final int MAX_BATCH_SIZE = 500;
+    private static final int MAX_TITLE_LENGTH = 255;
+
     TaskRepository taskRepository;
     TaskMapper taskMapper;
+    TaskPageCache taskPageCache;
+    ApplicationEventPublisher eventPublisher;
 
     private String getCurrentUsername() {
         return ofNullable(SecurityContextHolder.getContext().getAuthentication())
@@ -34,22 +68,93 @@ public class TaskService {
                 .orElseThrow(() -> new IllegalStateException("Объект аутентификации равен null"));
     }
 
-    public List<TaskResponse> getUserTasks() {
+    private void publish(final String username, final TaskEventType type, final UUID taskId, final TaskResponse task) {
+        eventPublisher.publishEvent(TaskEvent.builder()
+                .username(username)
+                .type(type)
+                .taskId(taskId)
+                .task(task)
+                .build());
+    }
+
+    private static int pageSize(final int limit) {
+        return Math.clamp(limit, 1, MAX_PAGE_SIZE);
+    }
+
+    private static Pageable lookahead(final int size) {
+        return PageRequest.ofSize(size + 1);
+    }
+
+    private static TaskCursor decodeCursor(final String cursor) {
+        return StringUtils.isBlank(cursor) ? null : TaskCursor.decode(cursor);
+    }
+
+    private TaskPageResponse toPage(final List<Task> tasks, final int size) {
+        if (tasks.size() <= size) {
+            return TaskPageResponse.builder()
+                    .items(taskMapper.toResponseList(tasks))
+                    .build();
+        }
+        val page = tasks.subList(0, size);
+        return TaskPageResponse.builder()
+                .items(taskMapper.toResponseList(page))
+                .nextCursor(TaskCursor.after(page.getLast()).encode())
+                .build();
+    }
+
+    public TaskPageSnapshot getUserTasks(final String cursor, final int limit) {
         val username = getCurrentUsername();
+        val size = pageSize(limit);
+        val after = decodeCursor(cursor);
+        return taskPageCache.get(username, new TaskPageCache.PageKey("all", null, cursor, size), () -> {
+            if (log.isDebugEnabled()) {
+                log.debug("Поиск задач для пользователя: {}", username);
+            }
+            val tasks = after == null
+                    ? taskRepository.findByldapUidOrderByCreatedAtAscIdAsc(username, lookahead(size))
+                    : taskRepository.findPageAfter(username, after.createdAt(), after.id(), lookahead(size));
+            return toPage(tasks, size);
+        });
+    }
+
+    @Transactional(readOnly = true)
+    public TaskPageResponse searchTasks(final String query, final String cursor, final int limit) {
+        val username = getCurrentUsername();
+        val searchQuery = SearchQuery.parse(query);
+        if (searchQuery == null) {
+            return TaskPageResponse.builder()
+                    .items(List.of())
+                    .build();
+        }
+        val size = pageSize(limit);
+        val after = StringUtils.isBlank(cursor) ? null : SearchCursor.decode(cursor);
         if (log.isDebugEnabled()) {
-            log.debug("Поиск задач для пользователя: {}", username);
+            log.debug("Поиск задач пользователя {} по запросу {}", username, searchQuery);
+        }
+        val hits = taskRepository.search(username, searchQuery, after, size + 1);
+        if (hits.size() <= size) {
+            return TaskPageResponse.builder()
+                    .items(hits.stream().map(TaskSearchHit::task).toList())
+                    .build();
         }
-        return taskMapper.toResponseList(taskRepository.findByldapUid(username));
+        val page = hits.subList(0, size);
+        return TaskPageResponse.builder()
+                .items(page.stream().map(TaskSearchHit::task).toList())
+                .nextCursor(SearchCursor.after(page.getLast()).encode())
+                .build();
     }
 
     public TaskResponse createTask(final TaskDto taskDto) {
         val username = getCurrentUsername();
         val task = taskMapper.toEntity(taskDto, username);
         val saved = taskRepository.save(task);
+        taskPageCache.invalidate(username);
         if (log.isInfoEnabled()) {
             log.info("Создание задачи {} '{}' для пользователя {}", saved.getId(), saved.getTitle(), username);
         }
-        return taskMapper.toResponse(saved);
+        val response = taskMapper.toResponse(saved);
+        publish(username, TaskEventType.CREATED, saved.getId(), response);
+        return response;
     }
 
     public TaskResponse updateTask(final UUID id, final UpdateTaskDto updateTaskDetails) {
@@ -66,27 +171,140 @@ public class TaskService {
 
         taskMapper.updateTaskFromDto(updateTaskDetails, task);
 
-        return taskMapper.toResponse(taskRepository.save(task));
+        val saved = taskRepository.save(task);
+        taskPageCache.invalidate(ldapUid);
+        val response = taskMapper.toResponse(saved);
+        publish(ldapUid, TaskEventType.UPDATED, id, response);
+        return response;
+    }
+
+    public TaskResponse patchTask(final UUID id, final PatchTaskDto patch) {
+        if (patch.title() != null && (StringUtils.isBlank(patch.title()) || patch.title().length() > MAX_TITLE_LENGTH)) {
+            throw new InvalidTaskException(
+                    "Название задачи должно быть непустым и не длиннее " + MAX_TITLE_LENGTH + " символов");
+        }
+        val username = getCurrentUsername();
+        val patched = taskRepository.patch(id, username, patch)
+                .orElseThrow(() -> new TaskNotFoundException("Задача не найдена"));
+        taskPageCache.invalidate(username);
+        publish(username, TaskEventType.UPDATED, id, patched);
+        return patched;
     }
 
+    @Transactional
     public void deleteTask(final UUID id) {
         log.info("Удаление задачи {}", id);
-        taskRepository.deleteById(id);
+        val username = getCurrentUsername();
+        if (taskRepository.deleteByIdAndLdapUid(id, username).isEmpty()) {
+            throw new TaskNotFoundException("Задача не найдена");
+        }
+        taskPageCache.invalidate(username);
+        publish(username, TaskEventType.DELETED, id, null);
     }
 
-    public List<TaskResponse> getCompletedTasks() {
+    @Transactional
+    public List<TaskBatchResult> applyBatch(final List<TaskBatchOperation> operations) {
+        if (operations.size() > MAX_BATCH_SIZE) {
+            throw new BatchTooLargeException("Слишком много операций в пакете: " + operations.size());
+        }
         val username = getCurrentUsername();
-        if (log.isDebugEnabled()) {
-            log.debug("Поиск выполненных задач для пользователя: {}", username);
+        val ids = operations.stream()
+                .map(TaskBatchOperation::id)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toSet());
+        val tasks = taskRepository.findAllById(ids).stream()
+                .collect(Collectors.toMap(Task::getId, Function.identity()));
+
+        val results = new ArrayList<TaskBatchResult>(operations.size());
+        for (int index = 0; index < operations.size(); index++) {
+            results.add(applyOperation(index, operations.get(index), username, tasks));
+        }
+        taskRepository.flush();
+        taskPageCache.invalidate(username);
+        for (val result : results) {
+            switch (result.status()) {
+                case 201 -> publish(username, TaskEventType.CREATED, result.id(), result.task());
+                case 200 -> publish(username, TaskEventType.UPDATED, result.id(), result.task());
+                case 204 -> publish(username, TaskEventType.DELETED, result.id(), null);
+                default -> { }
+            }
+        }
+
+        if (log.isInfoEnabled()) {
+            log.info("Пакет из {} операций применён для пользователя {}", operations.size(), username);
         }
-        return taskMapper.toResponseList(taskRepository.findByldapUidAndCompleted(username, true));
+        return results;
     }
 
-    public List<TaskResponse> getTasksByDate(final LocalDate date) {
-        val username = getCurrentUsername();
-        if (log.isDebugEnabled()) {
-            log.debug("Поиск задач на дату {} для пользователя: {}", date, username);
+    private TaskBatchResult applyOperation(final int index, final TaskBatchOperation operation, final String username,
+                                           final Map<UUID, Task> tasks) {
+        val result = TaskBatchResult.builder()
+                .index(index)
+                .op(operation.op())
+                .id(operation.id());
+
+        if (operation.op() == BatchOperationType.CREATE) {
+            if (operation.task() == null) {
+                return result.status(HttpStatus.BAD_REQUEST.value()).error("Не передана задача").build();
+            }
+            val created = taskRepository.save(taskMapper.toEntity(operation.task(), username));
+            return result.id(created.getId())
+                    .status(HttpStatus.CREATED.value())
+                    .task(taskMapper.toResponse(created))
+                    .build();
+        }
+
+        val task = operation.id() == null ? null : tasks.get(operation.id());
+        if (task == null) {
+            return result.status(HttpStatus.NOT_FOUND.value()).error("Задача не найдена").build();
         }
-        return taskMapper.toResponseList(taskRepository.findByldapUidAndDeadline(username, date));
+        if (!username.equals(task.getLdapUid())) {
+            log.warn("Попытка пакетного изменения чужой задачи {} пользователем {}", task.getId(), username);
+            return result.status(HttpStatus.FORBIDDEN.value()).error("LDAP uid не совпадает").build();
+        }
+
+        if (operation.op() == BatchOperationType.DELETE) {
+            tasks.remove(task.getId());
+            taskRepository.delete(task);
+            return result.status(HttpStatus.NO_CONTENT.value()).build();
+        }
+
+        if (operation.update() == null) {
+            return result.status(HttpStatus.BAD_REQUEST.value()).error("Не переданы изменения").build();
+        }
+        taskMapper.updateTaskFromDto(operation.update(), task);
+        return result.status(HttpStatus.OK.value())
+                .task(taskMapper.toResponse(task))
+                .build();
+    }
+
+    public TaskPageSnapshot getCompletedTasks(final String cursor, final int limit) {
+        val username = getCurrentUsername();
+        val size = pageSize(limit);
+        val after = decodeCursor(cursor);
+        return taskPageCache.get(username, new TaskPageCache.PageKey("completed", null, cursor, size), () -> {
+            if (log.isDebugEnabled()) {
+                log.debug("Поиск выполненных задач для пользователя: {}", username);
+            }
+            val tasks = after == null
+                    ? taskRepository.findByldapUidAndCompletedTrueOrderByCreatedAtAscIdAsc(username, lookahead(size))
+                    : taskRepository.findCompletedPageAfter(username, after.createdAt(), after.id(), lookahead(size));
+            return toPage(tasks, size);
+        });
+    }
+
+    public TaskPageSnapshot getTasksByDate(final LocalDate date, final String cursor, final int limit) {
+        val username = getCurrentUsername();
+        val size = pageSize(limit);
+        val after = decodeCursor(cursor);
+        return taskPageCache.get(username, new TaskPageCache.PageKey("date", date, cursor, size), () -> {
+            if (log.isDebugEnabled()) {
+                log.debug("Поиск задач на дату {} для пользователя: {}", date, username);
+            }
+            val tasks = after == null
+                    ? taskRepository.findByldapUidAndDeadlineOrderByCreatedAtAscIdAsc(username, date, lookahead(size))
+                    : taskRepository.findPageAfterByDeadline(username, date, after.createdAt(), after.id(), lookahead(size));
+            return toPage(tasks, size);
+        });
     }
 }
@@ -0,0 +1,85 @@
+package com.example.demo.service;
+
+import com.example.demo.dto.TaskChangesResponse;
+import com.example.demo.exception.SyncTokenExpiredException;
+import com.example.demo.repository.TaskRepository;
+import com.example.demo.utils.SyncToken;
+import com.example.demo.utils.TaskCursor;
+import com.example.demo.utils.TaskSyncProperties;
+import lombok.val;
+import lombok.RequiredArgsConstructor;
+import lombok.experimental.FieldDefaults;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.lang3.StringUtils;
+import org.springframework.dao.DataAccessException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Isolation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+import java.util.List;
+
+@Service
+@RequiredArgsConstructor
+@FieldDefaults(makeFinal = true)
+@Slf4j
+public class TaskSyncService {
+    TaskRepository taskRepository;
+    TaskSyncProperties props;
+
+    @Transactional(readOnly = true, isolation = Isolation.REPEATABLE_READ)
+    public TaskChangesResponse changesSince(final String ldapUid, final String since) {
+        val now = Instant.now();
+        if (StringUtils.isBlank(since)) {
+            return snapshotPage(ldapUid, new SyncToken(taskRepository.currentWatermark(), now));
+        }
+
+        val token = SyncToken.decode(since);
+        if (token.issuedAt().isBefore(now.minus(props.getTombstoneRetention()))) {
+            throw new SyncTokenExpiredException("Токен синхронизации устарел, требуется полная загрузка");
+        }
+        if (token.after() != null) {
+            return snapshotPage(ldapUid, token);
+        }
+        val next = new SyncToken(taskRepository.currentWatermark(), now).encode();
+        return TaskChangesResponse.builder()
+                .changed(taskRepository.findChangedSince(ldapUid, token.watermark()))
+                .deleted(taskRepository.findDeletedSince(ldapUid, token.watermark()))
+                .next(next)
+                .build();
+    }
+
+    private TaskChangesResponse snapshotPage(final String ldapUid, final SyncToken token) {
+        val size = props.getPageSize();
+        val tasks = taskRepository.findSnapshotPage(ldapUid, token.after(), size + 1);
+        if (tasks.size() <= size) {
+            return TaskChangesResponse.builder()
+                    .changed(tasks)
+                    .deleted(List.of())
+                    .next(new SyncToken(token.watermark(), token.issuedAt()).encode())
+                    .build();
+        }
+        val page = tasks.subList(0, size);
+        val last = page.getLast();
+        return TaskChangesResponse.builder()
+                .changed(page)
+                .deleted(List.of())
+                .next(new SyncToken(token.watermark(), token.issuedAt(), new TaskCursor(last.createdAt(), last.id()))
+                        .encode())
+                .hasMore(true)
+                .build();
+    }
+
+    @Scheduled(fixedDelayString = "${tasks.sync.purge-interval:PT1H}")
+    public void purgeTombstones() {
+        try {
+            val purged = taskRepository.purgeTombstones(Instant.now().minus(props.getTombstoneRetention()));
+            if (purged > 0 && log.isInfoEnabled()) {
+                log.info("Удалено устаревших записей об удалении задач: {}", purged);
+            }
+        } catch (final DataAccessException thrown) {
+            log.warn("Не удалось очистить записи об удалении задач: {}", thrown.getMessage());
+        }
+    }
+}
@@ -0,0 +1,20 @@
+package com.example.demo.utils;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+@Component
+@ConfigurationProperties("cluster.bus")
+@Data
+public class ClusterBusProperties {
+    boolean enabled = false;
+    String channel = "task_events";
+    Duration pollTimeout = Duration.ofMillis(100);
+    Duration reconnectDelay = Duration.ofSeconds(1);
+    Duration maxReconnectDelay = Duration.ofSeconds(30);
+    Duration keepaliveInterval = Duration.ofSeconds(30);
+    int maxPayloadBytes = 7_900;
+}
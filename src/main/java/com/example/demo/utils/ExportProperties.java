@@ -0,0 +1,16 @@
+package com.example.demo.utils;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.util.HashSet;
+import java.util.Set;
+
+@Component
+@ConfigurationProperties("tasks.export")
+@Data
+public class ExportProperties {
+    Set<String> admins = new HashSet<>();
+    int chunkSize = 100;
+}
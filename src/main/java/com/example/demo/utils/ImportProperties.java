@@ -0,0 +1,13 @@
+package com.example.demo.utils;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+@Component
+@ConfigurationProperties("tasks.import")
+@Data
+public class ImportProperties {
+    int chunkSize = 5_000;
+    int maxReportedErrors = 100;
+}
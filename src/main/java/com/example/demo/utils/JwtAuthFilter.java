@@ -31,13 +31,14 @@ public class JwtAuthFilter extends OncePerRequestFilter {
         val header = request.getHeader(HttpHeaders.AUTHORIZATION);
         if (header != null && header.startsWith("Bearer ")) {
             val token = header.substring(7);
-            if (jwtService.isTokenValid(token) && !jwtService.isRefreshToken(token) && !jwtService.isAccessRevoked(token)) {
-                val username = jwtService.extractUsername(token);
-                val auth =
-                        new UsernamePasswordAuthenticationToken(username, null, List.of());
-                auth.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
-                SecurityContextHolder.getContext().setAuthentication(auth);
-            }
+            jwtService.verifyAccess(token)
+                    .filter(verified -> !jwtService.isAccessRevoked(token))
+                    .ifPresent(verified -> {
+                        val auth =
+                                new UsernamePasswordAuthenticationToken(verified.subject(), null, List.of());
+                        auth.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
+                        SecurityContextHolder.getContext().setAuthentication(auth);
+                    });
         }
         chain.doFilter(request, response);
     }
@@ -4,6 +4,8 @@ import lombok.Data;
 import org.springframework.boot.context.properties.ConfigurationProperties;
 import org.springframework.stereotype.Component;
 
+import java.time.Duration;
+
 @Component
 @ConfigurationProperties("jwt")
 @Data
@@ -11,4 +13,7 @@ public class JwtProperties {
     String secret;
     int accessExpirationMinutes;
     int refreshExpirationDays;
+    int verifiedCacheSize = 10_000;
+    int rejectedCacheSize = 100_000;
+    Duration rejectedCacheTtl = Duration.ofMinutes(5);
 }
@@ -0,0 +1,16 @@
+package com.example.demo.utils;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+@Component
+@ConfigurationProperties("ldap.bind")
+@Data
+public class LdapBindProperties {
+    boolean cacheEnabled = false;
+    Duration cacheTtl = Duration.ofMinutes(1);
+    long cacheMaxEntries = 10_000;
+}
@@ -0,0 +1,20 @@
+package com.example.demo.utils;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+@Component
+@ConfigurationProperties("ldap.pool")
+@Data
+public class LdapPoolProperties {
+    int initialConnections = 2;
+    int maxConnections = 20;
+    Duration maxWait = Duration.ofSeconds(5);
+    Duration maxConnectionAge = Duration.ofMinutes(30);
+    Duration healthCheckInterval = Duration.ofMinutes(1);
+    Duration connectTimeout = Duration.ofSeconds(5);
+    Duration responseTimeout = Duration.ofSeconds(10);
+}
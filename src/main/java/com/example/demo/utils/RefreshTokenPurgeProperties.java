@@ -0,0 +1,18 @@
+package com.example.demo.utils;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+@Component
+@ConfigurationProperties("refresh-tokens.purge")
+@Data
+public class RefreshTokenPurgeProperties {
+    boolean enabled = true;
+    boolean dryRun = false;
+    int batchSize = 1_000;
+    int maxBatches = 500;
+    Duration pause = Duration.ofMillis(200);
+}
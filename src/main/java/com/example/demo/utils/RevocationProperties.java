@@ -0,0 +1,16 @@
+package com.example.demo.utils;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+@Component
+@ConfigurationProperties("jwt.revocation")
+@Data
+public class RevocationProperties {
+    int maxEntries = 100_000;
+    boolean shared = false;
+    Duration syncOverlap = Duration.ofSeconds(30);
+}
@@ -0,0 +1,37 @@
+package com.example.demo.utils;
+
+import com.example.demo.dto.TaskSearchHit;
+import com.example.demo.exception.InvalidCursorException;
+import lombok.val;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.UUID;
+
+public record SearchCursor(float rank, UUID id) {
+    private static final char SEPARATOR = '|';
+
+    public static SearchCursor after(final TaskSearchHit hit) {
+        return new SearchCursor(hit.rank(), hit.task().id());
+    }
+
+    public static SearchCursor decode(final String cursor) {
+        try {
+            val raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            val separator = raw.indexOf(SEPARATOR);
+            if (separator < 0) {
+                throw new InvalidCursorException("Некорректный курсор");
+            }
+            return new SearchCursor(
+                    Float.parseFloat(raw.substring(0, separator)),
+                    UUID.fromString(raw.substring(separator + 1)));
+        } catch (final IllegalArgumentException thrown) {
+            throw new InvalidCursorException("Некорректный курсор", thrown);
+        }
+    }
+
+    public String encode() {
+        val raw = Float.toString(rank) + SEPARATOR + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,30 @@
+package com.example.demo.utils;
+
+import lombok.val;
+import org.apache.commons.lang3.StringUtils;
+
+import java.util.Locale;
+import java.util.regex.Pattern;
+
+public record SearchQuery(String complete, String last) {
+    private static final int MAX_TERMS = 8;
+    private static final Pattern TERM = Pattern.compile("[\\p{L}\\p{N}]+");
+
+    public static SearchQuery parse(final String query) {
+        if (StringUtils.isBlank(query)) {
+            return null;
+        }
+        val terms = TERM.matcher(query).results()
+                .map(match -> match.group().toLowerCase(Locale.ROOT))
+                .limit(MAX_TERMS)
+                .toList();
+        if (terms.isEmpty()) {
+            return null;
+        }
+        return new SearchQuery(String.join(" & ", terms.subList(0, terms.size() - 1)), terms.getLast());
+    }
+
+    public String prefix() {
+        return last + ":*";
+    }
+}
@@ -0,0 +1,40 @@
+package com.example.demo.utils;
+
+import com.example.demo.exception.InvalidCursorException;
+import lombok.val;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.Base64;
+
+public record SyncToken(long watermark, Instant issuedAt, TaskCursor after) {
+    private static final char SEPARATOR = '|';
+
+    public SyncToken(final long watermark, final Instant issuedAt) {
+        this(watermark, issuedAt, null);
+    }
+
+    public static SyncToken decode(final String token) {
+        try {
+            val raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            val parts = raw.split("\\" + SEPARATOR, -1);
+            if (parts.length != 2 && parts.length != 3) {
+                throw new InvalidCursorException("Некорректный токен синхронизации");
+            }
+            return new SyncToken(
+                    Long.parseLong(parts[0]),
+                    Instant.ofEpochSecond(Long.parseLong(parts[1])),
+                    parts.length == 3 ? TaskCursor.decode(parts[2]) : null);
+        } catch (final IllegalArgumentException thrown) {
+            throw new InvalidCursorException("Некорректный токен синхронизации", thrown);
+        }
+    }
+
+    public String encode() {
+        var raw = Long.toString(watermark) + SEPARATOR + issuedAt.getEpochSecond();
+        if (after != null) {
+            raw += SEPARATOR + after.encode();
+        }
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,16 @@
+package com.example.demo.utils;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+@Component
+@ConfigurationProperties("tasks.cache")
+@Data
+public class TaskCacheProperties {
+    int maxUsers = 10_000;
+    int pagesPerUser = 32;
+    Duration ttl = Duration.ofMinutes(1);
+}
@@ -0,0 +1,39 @@
+package com.example.demo.utils;
+
+import com.example.demo.exception.InvalidCursorException;
+import com.example.demo.model.Task;
+import lombok.val;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+import java.util.UUID;
+
+public record TaskCursor(LocalDate createdAt, UUID id) {
+    private static final char SEPARATOR = '|';
+
+    public static TaskCursor after(final Task task) {
+        return new TaskCursor(task.getCreatedAt(), task.getId());
+    }
+
+    public static TaskCursor decode(final String cursor) {
+        try {
+            val raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            val separator = raw.indexOf(SEPARATOR);
+            if (separator < 0) {
+                throw new InvalidCursorException("Некорректный курсор");
+            }
+            return new TaskCursor(
+                    LocalDate.parse(raw.substring(0, separator)),
+                    UUID.fromString(raw.substring(separator + 1)));
+        } catch (final IllegalArgumentException | DateTimeParseException thrown) {
+            throw new InvalidCursorException("Некорректный курсор", thrown);
+        }
+    }
+
+    public String encode() {
+        val raw = createdAt.toString() + SEPARATOR + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+}
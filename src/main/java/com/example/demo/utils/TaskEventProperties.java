@@ -0,0 +1,16 @@
+package com.example.demo.utils;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+@Component
+@ConfigurationProperties("tasks.events")
+@Data
+public class TaskEventProperties {
+    int bufferSize = 256;
+    int maxSubscriptionsPerUser = 16;
+    Duration emitterTimeout = Duration.ofMinutes(30);
+}
@@ -0,0 +1,15 @@
+package com.example.demo.utils;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+@Component
+@ConfigurationProperties("tasks.sync")
+@Data
+public class TaskSyncProperties {
+    Duration tombstoneRetention = Duration.ofDays(30);
+    int pageSize = 500;
+}
@@ -0,0 +1,23 @@
+package com.example.demo.utils;
+
+import lombok.experimental.UtilityClass;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+
+@UtilityClass
+public class TokenDigests {
+    public byte[] sha256(final String token) {
+        try {
+            return MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.UTF_8));
+        } catch (final NoSuchAlgorithmException thrown) {
+            throw new IllegalStateException("SHA-256 недоступен", thrown);
+        }
+    }
+
+    public String sha256Hex(final String token) {
+        return HexFormat.of().formatHex(sha256(token));
+    }
+}
@@ -0,0 +1,11 @@
+CREATE TABLE revoked_access_tokens
+(
+    digest     VARCHAR(64)              NOT NULL,
+    expires_at TIMESTAMP WITH TIME ZONE NOT NULL,
+    revoked_at TIMESTAMP WITH TIME ZONE NOT NULL,
+    CONSTRAINT pk_revoked_access_tokens PRIMARY KEY (digest)
+);
+
+CREATE INDEX idx_revoked_access_tokens_expires_at ON revoked_access_tokens (expires_at);
+
+CREATE INDEX idx_revoked_access_tokens_revoked_at ON revoked_access_tokens (revoked_at);
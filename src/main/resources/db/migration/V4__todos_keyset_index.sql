@@ -0,0 +1,8 @@
+UPDATE todos
+SET created_at = CURRENT_DATE
+WHERE created_at IS NULL;
+
+ALTER TABLE todos
+    ALTER COLUMN created_at SET NOT NULL;
+
+CREATE INDEX idx_todos_ldap_uid_created_at_id ON todos (ldap_uid, created_at, id);
@@ -0,0 +1,7 @@
+CREATE INDEX idx_todos_ldap_uid_completed_created_at_id ON todos (ldap_uid, created_at, id) WHERE completed;
+
+CREATE INDEX idx_todos_ldap_uid_deadline_created_at_id ON todos (ldap_uid, deadline, created_at, id);
+
+CREATE INDEX idx_subtasks_task_id ON subtasks (task_id);
+
+CREATE INDEX idx_refresh_tokens_token ON refresh_tokens USING hash (token);
@@ -0,0 +1,13 @@
+ALTER TABLE refresh_tokens
+    ADD COLUMN token_hash VARCHAR(64);
+
+UPDATE refresh_tokens
+SET token_hash = encode(sha256(convert_to(token, 'UTF8')), 'hex')
+WHERE token IS NOT NULL;
+
+DROP INDEX idx_refresh_tokens_token;
+
+ALTER TABLE refresh_tokens
+    DROP COLUMN token;
+
+CREATE UNIQUE INDEX idx_refresh_tokens_token_hash ON refresh_tokens (token_hash);
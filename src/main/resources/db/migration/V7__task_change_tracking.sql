@@ -0,0 +1,78 @@
+ALTER TABLE todos
+    ADD COLUMN change_xid xid8 NOT NULL DEFAULT pg_current_xact_id();
+
+CREATE INDEX idx_todos_ldap_uid_change_xid ON todos (ldap_uid, change_xid);
+
+CREATE TABLE task_tombstones
+(
+    task_id    UUID         NOT NULL,
+    ldap_uid   VARCHAR(255),
+    change_xid xid8         NOT NULL DEFAULT pg_current_xact_id(),
+    deleted_at TIMESTAMPTZ  NOT NULL DEFAULT now(),
+    CONSTRAINT pk_task_tombstones PRIMARY KEY (task_id)
+);
+
+CREATE INDEX idx_task_tombstones_ldap_uid_change_xid ON task_tombstones (ldap_uid, change_xid);
+
+CREATE INDEX idx_task_tombstones_deleted_at ON task_tombstones (deleted_at);
+
+CREATE FUNCTION todos_touch_change_xid() RETURNS trigger
+    LANGUAGE plpgsql AS
+$$
+BEGIN
+    NEW.change_xid := pg_current_xact_id();
+    RETURN NEW;
+END;
+$$;
+
+CREATE TRIGGER trg_todos_touch_change_xid
+    BEFORE UPDATE ON todos
+    FOR EACH ROW
+EXECUTE FUNCTION todos_touch_change_xid();
+
+CREATE FUNCTION todos_record_tombstones() RETURNS trigger
+    LANGUAGE plpgsql AS
+$$
+BEGIN
+    INSERT INTO task_tombstones (task_id, ldap_uid)
+    SELECT id, ldap_uid FROM deleted_rows
+    ON CONFLICT (task_id) DO UPDATE
+        SET ldap_uid = EXCLUDED.ldap_uid, change_xid = EXCLUDED.change_xid, deleted_at = EXCLUDED.deleted_at;
+    RETURN NULL;
+END;
+$$;
+
+CREATE TRIGGER trg_todos_record_tombstones
+    AFTER DELETE ON todos
+    REFERENCING OLD TABLE AS deleted_rows
+    FOR EACH STATEMENT
+EXECUTE FUNCTION todos_record_tombstones();
+
+CREATE FUNCTION subtasks_touch_parent() RETURNS trigger
+    LANGUAGE plpgsql AS
+$$
+BEGIN
+    UPDATE todos
+    SET change_xid = pg_current_xact_id()
+    WHERE id IN (SELECT task_id FROM changed_rows);
+    RETURN NULL;
+END;
+$$;
+
+CREATE TRIGGER trg_subtasks_inserted
+    AFTER INSERT ON subtasks
+    REFERENCING NEW TABLE AS changed_rows
+    FOR EACH STATEMENT
+EXECUTE FUNCTION subtasks_touch_parent();
+
+CREATE TRIGGER trg_subtasks_updated
+    AFTER UPDATE ON subtasks
+    REFERENCING NEW TABLE AS changed_rows
+    FOR EACH STATEMENT
+EXECUTE FUNCTION subtasks_touch_parent();
+
+CREATE TRIGGER trg_subtasks_deleted
+    AFTER DELETE ON subtasks
+    REFERENCING OLD TABLE AS changed_rows
+    FOR EACH STATEMENT
+EXECUTE FUNCTION subtasks_touch_parent();
@@ -0,0 +1,47 @@
+CREATE EXTENSION IF NOT EXISTS btree_gin;
+
+CREATE FUNCTION task_search_vector(task_title TEXT, parent_id UUID) RETURNS tsvector
+    LANGUAGE sql STABLE AS
+$$
+SELECT setweight(to_tsvector('russian', COALESCE(task_title, '')), 'A')
+           || setweight(to_tsvector('russian', COALESCE(
+                   (SELECT string_agg(s.text, ' ') FROM subtasks s WHERE s.task_id = parent_id),
+                   '')), 'B');
+$$;
+
+ALTER TABLE todos
+    ADD COLUMN search_vector tsvector NOT NULL DEFAULT ''::tsvector;
+
+ALTER TABLE todos DISABLE TRIGGER trg_todos_touch_change_xid;
+
+UPDATE todos SET search_vector = task_search_vector(title, id);
+
+ALTER TABLE todos ENABLE TRIGGER trg_todos_touch_change_xid;
+
+CREATE INDEX idx_todos_ldap_uid_search_vector ON todos USING gin (ldap_uid, search_vector);
+
+CREATE FUNCTION todos_refresh_search_vector() RETURNS trigger
+    LANGUAGE plpgsql AS
+$$
+BEGIN
+    NEW.search_vector := task_search_vector(NEW.title, NEW.id);
+    RETURN NEW;
+END;
+$$;
+
+CREATE TRIGGER trg_todos_refresh_search_vector
+    BEFORE INSERT OR UPDATE OF title ON todos
+    FOR EACH ROW
+EXECUTE FUNCTION todos_refresh_search_vector();
+
+CREATE OR REPLACE FUNCTION subtasks_touch_parent() RETURNS trigger
+    LANGUAGE plpgsql AS
+$$
+BEGIN
+    UPDATE todos t
+    SET change_xid = pg_current_xact_id(),
+        search_vector = task_search_vector(t.title, t.id)
+    WHERE t.id IN (SELECT task_id FROM changed_rows);
+    RETURN NULL;
+END;
+$$;
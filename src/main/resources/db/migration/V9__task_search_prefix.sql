@@ -0,0 +1,14 @@
+CREATE OR REPLACE FUNCTION task_search_vector(task_title TEXT, parent_id UUID) RETURNS tsvector
+    LANGUAGE sql STABLE AS
+$$
+SELECT setweight(to_tsvector('russian', d.title) || to_tsvector('simple', d.title), 'A')
+           || setweight(to_tsvector('russian', d.body) || to_tsvector('simple', d.body), 'B')
+FROM (SELECT COALESCE(task_title, '') AS title,
+             COALESCE((SELECT string_agg(s.text, ' ') FROM subtasks s WHERE s.task_id = parent_id), '') AS body) d;
+$$;
+
+ALTER TABLE todos DISABLE TRIGGER trg_todos_touch_change_xid;
+
+UPDATE todos SET search_vector = task_search_vector(title, id);
+
+ALTER TABLE todos ENABLE TRIGGER trg_todos_touch_change_xid;
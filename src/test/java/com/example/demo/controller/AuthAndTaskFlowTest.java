@@ -1,17 +1,37 @@
 package com.example.demo.controller;
 
+import com.example.demo.dto.BatchOperationType;
+import com.example.demo.dto.CalendarDay;
+import com.example.demo.dto.CalendarResponse;
 import com.example.demo.dto.LoginRequest;
+import com.example.demo.dto.PatchTaskDto;
 import com.example.demo.dto.SubtaskDto;
 import com.example.demo.dto.SubtaskResponse;
+import com.example.demo.dto.TaskBatchOperation;
+import com.example.demo.dto.TaskBatchResult;
+import com.example.demo.dto.TaskChangesResponse;
 import com.example.demo.dto.TaskDto;
+import com.example.demo.dto.TaskPageResponse;
+import com.example.demo.dto.TaskPageSnapshot;
 import com.example.demo.dto.TaskResponse;
 import com.example.demo.dto.UpdateTaskDto;
+import com.example.demo.dto.VerifiedToken;
 import com.example.demo.model.RefreshToken;
 import com.example.demo.service.JwtService;
 import com.example.demo.service.RefreshTokenService;
+import com.example.demo.service.TaskCalendarService;
+import com.example.demo.service.TaskEventBroker;
+import com.example.demo.service.TaskExportService;
+import com.example.demo.service.TaskImportService;
 import com.example.demo.service.TaskService;
+import com.example.demo.service.TaskSyncService;
 import com.example.demo.utils.JwtAuthFilter;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.databind.CBORMapper;
+import com.fasterxml.jackson.dataformat.smile.databind.SmileMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.DispatcherType;
 import lombok.val;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Order;
@@ -42,6 +62,7 @@ import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.mockito.ArgumentMatchers.*;
 import static org.mockito.Mockito.*;
 import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.csrf;
@@ -73,6 +94,18 @@ class AuthAndTaskFlowTest {
     @Autowired
     private TaskService taskService;
 
+    @Autowired
+    private TaskExportService taskExportService;
+
+    @Autowired
+    private TaskSyncService taskSyncService;
+
+    @Autowired
+    private TaskCalendarService taskCalendarService;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
     private String accessToken;
     private String refreshToken;
     private RefreshToken loginRefreshEntity;
@@ -115,14 +148,18 @@ class AuthAndTaskFlowTest {
         accessToken = json.get("accessToken").asText();
         refreshToken = result.getResponse().getCookie("refreshToken").getValue();
         loginRefreshEntity = saved;
-
-        when(jwtService.isTokenValid(accessToken)).thenReturn(true);
-        when(jwtService.isRefreshToken(accessToken)).thenReturn(false);
-        when(jwtService.extractUsername(accessToken)).thenReturn("alice");
-
-        when(jwtService.isTokenValid(refreshToken)).thenReturn(true);
-        when(jwtService.isRefreshToken(refreshToken)).thenReturn(true);
-        when(jwtService.extractUsername(refreshToken)).thenReturn("alice");
+        assertEquals(1, meterRegistry.get("auth.ldap.bind").tag("outcome", "success").timer().count());
+
+        when(jwtService.verifyAccess(accessToken)).thenReturn(Optional.of(VerifiedToken.builder()
+                .subject("alice")
+                .type("access")
+                .expiration(Instant.now().plusSeconds(900))
+                .build()));
+        when(refreshTokenService.verify(refreshToken)).thenReturn(Optional.of(VerifiedToken.builder()
+                .subject("alice")
+                .type("refresh")
+                .expiration(Instant.now().plusSeconds(10800))
+                .build()));
     }
 
     @Test
@@ -139,17 +176,114 @@ class AuthAndTaskFlowTest {
                 .title("Task B")
                 .deadline(LocalDate.of(2025, 2, 2))
                 .build();
-        when(taskService.getUserTasks()).thenReturn(List.of(firstTask, secondTask));
+        when(taskService.getUserTasks(null, 50)).thenReturn(page(TaskPageResponse.builder()
+                .items(List.of(firstTask, secondTask))
+                .nextCursor("next-page")
+                .build()));
 
         mockMvc.perform(get("/api/tasks")
                         .header(HttpHeaders.AUTHORIZATION, "Bearer " + accessToken))
                 .andExpect(status().isOk())
-                .andExpect(jsonPath("$[0].title").value("Task A"))
-                .andExpect(jsonPath("$[1].title").value("Task B"));
+                .andExpect(header().string(HttpHeaders.ETAG, "\"etag-json\""))
+                .andExpect(jsonPath("$.items[0].title").value("Task A"))
+                .andExpect(jsonPath("$.items[1].title").value("Task B"))
+                .andExpect(jsonPath("$.nextCursor").value("next-page"));
     }
 
     @Test
     @Order(3)
+    @DisplayName("GET /api/tasks passes cursor and limit through (authorized)")
+    void getTasksNextPage() throws Exception {
+        val task = TaskResponse.builder()
+                .id(UUID.randomUUID())
+                .title("Task C")
+                .build();
+        when(taskService.getUserTasks("next-page", 2)).thenReturn(page(TaskPageResponse.builder()
+                .items(List.of(task))
+                .build()));
+
+        mockMvc.perform(get("/api/tasks")
+                        .param("cursor", "next-page")
+                        .param("limit", "2")
+                        .header(HttpHeaders.AUTHORIZATION, "Bearer " + accessToken))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items[0].title").value("Task C"))
+                .andExpect(jsonPath("$.nextCursor").doesNotExist());
+    }
+
+    @Test
+    @Order(4)
+    @DisplayName("GET /api/tasks answers 304 only when If-None-Match carries the ETag of the negotiated format")
+    void getTasksNotModified() throws Exception {
+        when(taskService.getUserTasks(null, 50)).thenReturn(TaskPageSnapshot.builder()
+                .page(TaskPageResponse.builder().items(List.of()).build())
+                .etag("unchanged")
+                .build());
+
+        mockMvc.perform(get("/api/tasks")
+                        .header(HttpHeaders.IF_NONE_MATCH, "\"unchanged-json\"")
+                        .header(HttpHeaders.AUTHORIZATION, "Bearer " + accessToken))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"unchanged-json\""))
+                .andExpect(content().string(""));
+
+        mockMvc.perform(get("/api/tasks")
+                        .accept(MediaType.APPLICATION_CBOR)
+                        .header(HttpHeaders.IF_NONE_MATCH, "\"unchanged-json\"")
+                        .header(HttpHeaders.AUTHORIZATION, "Bearer " + accessToken))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_CBOR))
+                .andExpect(header().string(HttpHeaders.ETAG, "\"unchanged-cbor\""));
+
+        mockMvc.perform(get("/api/tasks")
+                        .accept(MediaType.APPLICATION_CBOR)
+                        .header(HttpHeaders.IF_NONE_MATCH, "\"unchanged-cbor\"")
+                        .header(HttpHeaders.AUTHORIZATION, "Bearer " + accessToken))
+                .andExpect(status().isNotModified());
+    }
+
+    @Test
+    @Order(5)
+    @DisplayName("GET /api/tasks negotiates CBOR and Smile, JSON stays the default (authorized)")
+    void getTasksBinaryFormats() throws Exception {
+        val task = TaskResponse.builder()
+                .id(UUID.randomUUID())
+                .title("Task A")
+                .deadline(LocalDate.of(2025, 1, 1))
+                .build();
+        when(taskService.getUserTasks(null, 50)).thenReturn(page(TaskPageResponse.builder()
+                .items(List.of(task))
+                .build()));
+
+        val cbor = mockMvc.perform(get("/api/tasks")
+                        .accept(MediaType.APPLICATION_CBOR)
+                        .header(HttpHeaders.AUTHORIZATION, "Bearer " + accessToken))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_CBOR))
+                .andReturn().getResponse().getContentAsByteArray();
+        assertEquals(task, new CBORMapper().findAndRegisterModules()
+                .readValue(cbor, TaskPageResponse.class).items().getFirst());
+
+        val smileType = new MediaType("application", "x-jackson-smile");
+        val smile = mockMvc.perform(get("/api/tasks")
+                        .accept(smileType)
+                        .header(HttpHeaders.AUTHORIZATION, "Bearer " + accessToken))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(smileType))
+                .andReturn().getResponse().getContentAsByteArray();
+        assertEquals(task, new SmileMapper().findAndRegisterModules()
+                .readValue(smile, TaskPageResponse.class).items().getFirst());
+
+        mockMvc.perform(get("/api/tasks")
+                        .accept(MediaType.ALL)
+                        .header(HttpHeaders.AUTHORIZATION, "Bearer " + accessToken))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_JSON))
+                .andExpect(jsonPath("$.items[0].title").value("Task A"));
+    }
+
+    @Test
+    @Order(6)
     @DisplayName("GET /api/tasks/{date} returns tasks by date (authorized)")
     void getTasksByDate() throws Exception {
         val date = LocalDate.of(2025, 3, 3);
@@ -158,17 +292,19 @@ class AuthAndTaskFlowTest {
                 .title("By Date")
                 .deadline(date)
                 .build();
-        when(taskService.getTasksByDate(date)).thenReturn(List.of(taskByDate));
+        when(taskService.getTasksByDate(date, null, 50)).thenReturn(page(TaskPageResponse.builder()
+                .items(List.of(taskByDate))
+                .build()));
 
         mockMvc.perform(get("/api/tasks/" + date)
                         .header(HttpHeaders.AUTHORIZATION, "Bearer " + accessToken))
                 .andExpect(status().isOk())
-                .andExpect(jsonPath("$[0].deadline").value(date.toString()))
-                .andExpect(jsonPath("$[0].title").value("By Date"));
+                .andExpect(jsonPath("$.items[0].deadline").value(date.toString()))
+                .andExpect(jsonPath("$.items[0].title").value("By Date"));
     }
 
     @Test
-    @Order(4)
+    @Order(7)
     @DisplayName("GET /api/tasks/completed returns completed tasks (authorized)")
     void getCompletedTasks() throws Exception {
         val completedTask = TaskResponse.builder()
@@ -177,17 +313,19 @@ class AuthAndTaskFlowTest {
                 .deadline(LocalDate.of(2025, 4, 4))
                 .completed(true)
                 .build();
-        when(taskService.getCompletedTasks()).thenReturn(List.of(completedTask));
+        when(taskService.getCompletedTasks(null, 50)).thenReturn(page(TaskPageResponse.builder()
+                .items(List.of(completedTask))
+                .build()));
 
         mockMvc.perform(get("/api/tasks/completed")
                         .header(HttpHeaders.AUTHORIZATION, "Bearer " + accessToken))
                 .andExpect(status().isOk())
-                .andExpect(jsonPath("$[0].completed").value(true))
-                .andExpect(jsonPath("$[0].title").value("Completed"));
+                .andExpect(jsonPath("$.items[0].completed").value(true))
+                .andExpect(jsonPath("$.items[0].title").value("Completed"));
     }
 
     @Test
-    @Order(5)
+    @Order(8)
     @DisplayName("POST /api/tasks creates a task (authorized)")
     void createTask() throws Exception {
         val subtaskDto = SubtaskDto.builder().text("Subtask 1").build();
@@ -217,7 +355,7 @@ class AuthAndTaskFlowTest {
     }
 
     @Test
-    @Order(6)
+    @Order(9)
     @DisplayName("PUT /api/tasks/{id} updates a task (authorized)")
     void updateTask() throws Exception {
         val id = UUID.randomUUID();
@@ -249,7 +387,30 @@ class AuthAndTaskFlowTest {
     }
 
     @Test
-    @Order(7)
+    @Order(10)
+    @DisplayName("PATCH /api/tasks/{id} applies a sparse update (authorized)")
+    void patchTask() throws Exception {
+        val id = UUID.randomUUID();
+        val patched = TaskResponse.builder()
+                .id(id)
+                .title("Unchanged")
+                .completed(true)
+                .subtasks(List.of())
+                .build();
+        when(taskService.patchTask(id, PatchTaskDto.builder().completed(true).build())).thenReturn(patched);
+
+        mockMvc.perform(patch("/api/tasks/" + id)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"completed\": true}")
+                        .header(HttpHeaders.AUTHORIZATION, "Bearer " + accessToken)
+                        .with(csrf()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.completed").value(true))
+                .andExpect(jsonPath("$.title").value("Unchanged"));
+    }
+
+    @Test
+    @Order(11)
     @DisplayName("DELETE /api/tasks/{id} deletes a task (authorized)")
     void deleteTask() throws Exception {
         val id = UUID.randomUUID();
@@ -262,19 +423,134 @@ class AuthAndTaskFlowTest {
     }
 
     @Test
-    @Order(8)
+    @Order(12)
+    @DisplayName("POST /api/tasks/batch applies operations and reports per-operation results (authorized)")
+    void applyBatch() throws Exception {
+        val createdId = UUID.randomUUID();
+        val missingId = UUID.randomUUID();
+        val operations = List.of(
+                TaskBatchOperation.builder()
+                        .op(BatchOperationType.CREATE)
+                        .task(TaskDto.builder().title("Offline task").subtasks(List.of()).build())
+                        .build(),
+                TaskBatchOperation.builder()
+                        .op(BatchOperationType.DELETE)
+                        .id(missingId)
+                        .build());
+
+        when(taskService.applyBatch(anyList())).thenReturn(List.of(
+                TaskBatchResult.builder()
+                        .index(0)
+                        .op(BatchOperationType.CREATE)
+                        .id(createdId)
+                        .status(201)
+                        .task(TaskResponse.builder().id(createdId).title("Offline task").build())
+                        .build(),
+                TaskBatchResult.builder()
+                        .index(1)
+                        .op(BatchOperationType.DELETE)
+                        .id(missingId)
+                        .status(404)
+                        .error("Задача не найдена")
+                        .build()));
+
+        mockMvc.perform(post("/api/tasks/batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(operations))
+                        .header(HttpHeaders.AUTHORIZATION, "Bearer " + accessToken)
+                        .with(csrf()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].status").value(201))
+                .andExpect(jsonPath("$[0].task.title").value("Offline task"))
+                .andExpect(jsonPath("$[1].status").value(404))
+                .andExpect(jsonPath("$[1].id").value(missingId.toString()));
+    }
+
+    @Test
+    @Order(13)
+    @DisplayName("GET /api/tasks/changes returns the delta since the sync token (authorized)")
+    void getChanges() throws Exception {
+        val deleted = UUID.randomUUID();
+        when(taskSyncService.changesSince("alice", "token-1")).thenReturn(TaskChangesResponse.builder()
+                .changed(List.of(TaskResponse.builder()
+                        .id(UUID.randomUUID())
+                        .title("Changed")
+                        .build()))
+                .deleted(List.of(deleted))
+                .next("token-2")
+                .build());
+
+        mockMvc.perform(get("/api/tasks/changes")
+                        .param("since", "token-1")
+                        .header(HttpHeaders.AUTHORIZATION, "Bearer " + accessToken))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.changed[0].title").value("Changed"))
+                .andExpect(jsonPath("$.deleted[0]").value(deleted.toString()))
+                .andExpect(jsonPath("$.next").value("token-2"));
+    }
+
+    @Test
+    @Order(14)
+    @DisplayName("GET /api/tasks/calendar returns per-day counts and rejects inverted ranges (authorized)")
+    void getCalendar() throws Exception {
+        val from = LocalDate.of(2025, 3, 1);
+        val to = LocalDate.of(2025, 3, 31);
+        when(taskCalendarService.getCalendar("alice", from, to)).thenReturn(CalendarResponse.builder()
+                .from(from)
+                .to(to)
+                .days(List.of(CalendarDay.builder()
+                        .date(LocalDate.of(2025, 3, 3))
+                        .total(3)
+                        .completed(1)
+                        .overdue(2)
+                        .build()))
+                .build());
+
+        mockMvc.perform(get("/api/tasks/calendar")
+                        .param("from", from.toString())
+                        .param("to", to.toString())
+                        .header(HttpHeaders.AUTHORIZATION, "Bearer " + accessToken))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.days[0].date").value("2025-03-03"))
+                .andExpect(jsonPath("$.days[0].total").value(3))
+                .andExpect(jsonPath("$.days[0].completed").value(1))
+                .andExpect(jsonPath("$.days[0].overdue").value(2));
+
+        mockMvc.perform(get("/api/tasks/calendar")
+                        .param("from", to.toString())
+                        .param("to", from.toString())
+                        .param("expand", "true")
+                        .header(HttpHeaders.AUTHORIZATION, "Bearer " + accessToken))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    @Order(15)
+    @DisplayName("GET /api/tasks/export?all=true is forbidden for non-admins (authorized)")
+    void exportAllForbidden() throws Exception {
+        when(taskExportService.canExportAll("alice")).thenReturn(false);
+
+        mockMvc.perform(get("/api/tasks/export")
+                        .param("all", "true")
+                        .header(HttpHeaders.AUTHORIZATION, "Bearer " + accessToken))
+                .andExpect(status().isForbidden());
+
+        verify(taskExportService, never()).exportAllTasks(any());
+    }
+
+    @Test
+    @Order(16)
     @DisplayName("Refresh returns new access and rotates refresh token")
     void refreshSuccess() throws Exception {
         when(refreshTokenService.findValid(refreshToken)).thenReturn(Optional.of(loginRefreshEntity));
-        when(jwtService.extractUsername(refreshToken)).thenReturn("alice");
         when(jwtService.generateAccessToken("alice")).thenReturn("new-access");
-        when(refreshTokenService.rotate("alice", refreshToken)).thenReturn(RefreshToken.builder()
+        when(refreshTokenService.rotate("alice", refreshToken)).thenReturn(Optional.of(RefreshToken.builder()
                 .id("id-2")
                 .username("alice")
                 .token("new-refresh")
                 .expiry(Instant.now().plusSeconds(10800))
                 .revoked(false)
-                .build());
+                .build()));
 
         mockMvc.perform(post("/auth/refresh")
                         .cookie(new jakarta.servlet.http.Cookie("refreshToken", refreshToken)))
@@ -285,7 +561,20 @@ class AuthAndTaskFlowTest {
     }
 
     @Test
-    @Order(9)
+    @Order(17)
+    @DisplayName("Refresh loses the rotation race and answers 401")
+    void refreshAlreadyRotated() throws Exception {
+        when(refreshTokenService.findValid(refreshToken)).thenReturn(Optional.of(loginRefreshEntity));
+        when(refreshTokenService.rotate("alice", refreshToken)).thenReturn(Optional.empty());
+
+        mockMvc.perform(post("/auth/refresh")
+                        .cookie(new jakarta.servlet.http.Cookie("refreshToken", refreshToken)))
+                .andExpect(status().isUnauthorized())
+                .andExpect(cookie().doesNotExist("refreshToken"));
+    }
+
+    @Test
+    @Order(18)
     @DisplayName("Logout revokes provided refresh token (authorized)")
     void logout() throws Exception {
         doNothing().when(refreshTokenService).revoke(refreshToken);
@@ -301,6 +590,13 @@ class AuthAndTaskFlowTest {
         verify(refreshTokenService, times(1)).revoke(refreshToken);
     }
 
+    private static TaskPageSnapshot page(final TaskPageResponse page) {
+        return TaskPageSnapshot.builder()
+                .page(page)
+                .etag("etag")
+                .build();
+    }
+
     @TestConfiguration
     static class TestConfig {
         @Bean
@@ -308,6 +604,11 @@ class AuthAndTaskFlowTest {
             return mock(AuthenticationManager.class);
         }
 
+        @Bean
+        public MeterRegistry meterRegistry() {
+            return new SimpleMeterRegistry();
+        }
+
         @Bean
         public JwtService jwtService() {
             return mock(JwtService.class);
@@ -323,6 +624,31 @@ class AuthAndTaskFlowTest {
             return mock(TaskService.class);
         }
 
+        @Bean
+        public TaskExportService taskExportService() {
+            return mock(TaskExportService.class);
+        }
+
+        @Bean
+        public TaskImportService taskImportService() {
+            return mock(TaskImportService.class);
+        }
+
+        @Bean
+        public TaskSyncService taskSyncService() {
+            return mock(TaskSyncService.class);
+        }
+
+        @Bean
+        public TaskCalendarService taskCalendarService() {
+            return mock(TaskCalendarService.class);
+        }
+
+        @Bean
+        public TaskEventBroker taskEventBroker() {
+            return mock(TaskEventBroker.class);
+        }
+
         @Bean
         public JwtAuthFilter jwtAuthFilter(final JwtService jwtService) {
             return new JwtAuthFilter(jwtService);
@@ -333,6 +659,7 @@ class AuthAndTaskFlowTest {
             return http
                     .csrf(AbstractHttpConfigurer::disable)
                     .authorizeHttpRequests(auth -> auth
+                            .dispatcherTypeMatchers(DispatcherType.ASYNC).permitAll()
                             .requestMatchers("/auth/login", "/auth/refresh", "/public/**").permitAll()
                             .anyRequest().authenticated())
                     .sessionManagement(session -> session.sessionCreationPolicy(SessionCreationPolicy.STATELESS))
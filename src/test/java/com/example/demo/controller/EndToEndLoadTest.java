@@ -0,0 +1,225 @@
+package com.example.demo.controller;
+
+import com.example.demo.security.DevSecurityConfig;
+import com.example.demo.security.InMemoryDirectory;
+import com.example.demo.utils.JwtAuthFilter;
+import com.example.demo.utils.LdapBindProperties;
+import com.example.demo.utils.LdapPoolProperties;
+import com.example.demo.utils.LdapProperties;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.zonky.test.db.AutoConfigureEmbeddedDatabase;
+import lombok.val;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static io.zonky.test.db.AutoConfigureEmbeddedDatabase.DatabaseProvider.ZONKY;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+@Tag("load")
+@Slf4j
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@AutoConfigureEmbeddedDatabase(provider = ZONKY)
+@ActiveProfiles({"test", "load"})
+class EndToEndLoadTest {
+    private static final int CONCURRENCY = Integer.getInteger("load.concurrency", 32);
+    private static final int SESSIONS = Integer.getInteger("load.sessions", 50);
+    private static final Duration TIMEOUT = Duration.ofSeconds(30);
+
+    private static InMemoryDirectory directory;
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private final HttpClient client = HttpClient.newBuilder()
+            .connectTimeout(TIMEOUT)
+            .build();
+    private final Map<String, ConcurrentLinkedQueue<Long>> latencies = new ConcurrentHashMap<>();
+    private final Map<String, AtomicLong> errors = new ConcurrentHashMap<>();
+
+    @DynamicPropertySource
+    static void directoryProperties(final DynamicPropertyRegistry registry) throws Exception {
+        directory = InMemoryDirectory.start(CONCURRENCY);
+        registry.add("spring.ldap.urls", directory::url);
+        registry.add("spring.ldap.base", () -> InMemoryDirectory.BASE);
+        registry.add("spring.ldap.username", () -> InMemoryDirectory.ADMIN_DN);
+        registry.add("spring.ldap.password", () -> InMemoryDirectory.ADMIN_PASSWORD);
+    }
+
+    @AfterAll
+    static void stopDirectory() {
+        directory.close();
+    }
+
+    @Test
+    @DisplayName("login → list → create → update → refresh → logout under concurrent sessions")
+    void sessionMix() throws Exception {
+        run(Math.max(1, SESSIONS / 10));
+        latencies.clear();
+        errors.clear();
+
+        val started = System.nanoTime();
+        run(SESSIONS);
+        val elapsedMillis = Math.max(1, (System.nanoTime() - started) / 1_000_000);
+
+        report(elapsedMillis);
+        assertEquals(0, errors.values().stream().mapToLong(AtomicLong::get).sum(),
+                () -> "неуспешные запросы: " + errors);
+    }
+
+    private void run(final int sessionsPerUser) throws Exception {
+        val workers = new ArrayList<Callable<Void>>(CONCURRENCY);
+        for (int i = 0; i < CONCURRENCY; i++) {
+            val username = InMemoryDirectory.username(i);
+            workers.add(() -> {
+                for (int s = 0; s < sessionsPerUser; s++) {
+                    session(username);
+                }
+                return null;
+            });
+        }
+        try (ExecutorService executor = Executors.newFixedThreadPool(CONCURRENCY)) {
+            for (val future : executor.invokeAll(workers)) {
+                future.get();
+            }
+        }
+    }
+
+    private void session(final String username) throws Exception {
+        val login = send("POST /auth/login", HttpStatus.OK, json("/auth/login")
+                .POST(body(Map.of("username", username, "password", InMemoryDirectory.PASSWORD))));
+        if (login == null) {
+            return;
+        }
+        var access = objectMapper.readTree(login.body()).get("accessToken").asText();
+        var refresh = refreshCookie(login);
+
+        send("GET /api/tasks", HttpStatus.OK, authorized("/api/tasks?limit=50", access).GET());
+
+        val created = send("POST /api/tasks", HttpStatus.CREATED, authorized("/api/tasks", access)
+                .POST(body(Map.of("title", "Load", "subtasks", List.of(Map.of("text", "step"))))));
+        if (created != null) {
+            val id = objectMapper.readTree(created.body()).get("id").asText();
+            send("PATCH /api/tasks/{id}", HttpStatus.OK, authorized("/api/tasks/" + id, access)
+                    .method("PATCH", body(Map.of("completed", true))));
+            send("GET /api/tasks", HttpStatus.OK, authorized("/api/tasks?limit=50", access).GET());
+        }
+
+        val refreshed = send("POST /auth/refresh", HttpStatus.OK, request("/auth/refresh")
+                .header(HttpHeaders.COOKIE, "refreshToken=" + refresh)
+                .POST(HttpRequest.BodyPublishers.noBody()));
+        if (refreshed != null) {
+            access = objectMapper.readTree(refreshed.body()).get("accessToken").asText();
+            refresh = refreshCookie(refreshed);
+        }
+
+        send("POST /auth/logout", HttpStatus.OK, authorized("/auth/logout", access)
+                .header(HttpHeaders.COOKIE, "refreshToken=" + refresh)
+                .POST(HttpRequest.BodyPublishers.noBody()));
+    }
+
+    private HttpResponse<String> send(final String endpoint, final HttpStatus expected,
+                                      final HttpRequest.Builder request) {
+        val started = System.nanoTime();
+        try {
+            val response = client.send(request.build(), HttpResponse.BodyHandlers.ofString());
+            latencies.computeIfAbsent(endpoint, key -> new ConcurrentLinkedQueue<>())
+                    .add((System.nanoTime() - started) / 1_000);
+            if (response.statusCode() != expected.value()) {
+                error(endpoint + " " + response.statusCode());
+                return null;
+            }
+            return response;
+        } catch (final Exception thrown) {
+            error(endpoint + " " + thrown.getClass().getSimpleName());
+            return null;
+        }
+    }
+
+    private void error(final String key) {
+        errors.computeIfAbsent(key, ignored -> new AtomicLong()).incrementAndGet();
+    }
+
+    private void report(final long elapsedMillis) {
+        val total = latencies.values().stream().mapToLong(ConcurrentLinkedQueue::size).sum();
+        log.info("Нагрузка: {} сессий x {} пользователей, {} запросов за {} мс, {} запросов/с",
+                SESSIONS, CONCURRENCY, total, elapsedMillis, total * 1000L / elapsedMillis);
+        for (val entry : new TreeMap<>(latencies).entrySet()) {
+            val sorted = entry.getValue().stream().mapToLong(Long::longValue).sorted().toArray();
+            log.info("{}: {} запросов, {} запросов/с, p50={} мс, p95={} мс, p99={} мс",
+                    entry.getKey(), sorted.length, sorted.length * 1000L / elapsedMillis,
+                    millis(percentile(sorted, 50)), millis(percentile(sorted, 95)), millis(percentile(sorted, 99)));
+        }
+    }
+
+    private HttpRequest.Builder request(final String path) {
+        return HttpRequest.newBuilder(URI.create("http://localhost:" + port + path)).timeout(TIMEOUT);
+    }
+
+    private HttpRequest.Builder json(final String path) {
+        return request(path).header(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE);
+    }
+
+    private HttpRequest.Builder authorized(final String path, final String access) {
+        return json(path).header(HttpHeaders.AUTHORIZATION, "Bearer " + access);
+    }
+
+    private HttpRequest.BodyPublisher body(final Object value) throws Exception {
+        return HttpRequest.BodyPublishers.ofByteArray(objectMapper.writeValueAsBytes(value));
+    }
+
+    private static String refreshCookie(final HttpResponse<String> response) {
+        return response.headers().allValues(HttpHeaders.SET_COOKIE).stream()
+                .filter(cookie -> cookie.startsWith("refreshToken="))
+                .map(cookie -> cookie.substring("refreshToken=".length(), cookie.indexOf(';')))
+                .findFirst()
+                .orElseThrow();
+    }
+
+    private static String millis(final long micros) {
+        return String.format("%.2f", micros / 1000.0);
+    }
+
+    private static long percentile(final long[] sorted, final int percentile) {
+        return sorted[Math.min(sorted.length - 1, sorted.length * percentile / 100)];
+    }
+
+    @TestConfiguration
+    static class LoadSecurityConfig extends DevSecurityConfig {
+        LoadSecurityConfig(final JwtAuthFilter jwtAuthFilter, final LdapBindProperties ldapBindProperties,
+                           final LdapPoolProperties ldapPoolProperties, final LdapProperties ldapProperties) {
+            super(jwtAuthFilter, ldapBindProperties, ldapPoolProperties, ldapProperties);
+        }
+    }
+}
@@ -0,0 +1,152 @@
+package com.example.demo.controller;
+
+import com.example.demo.repository.RefreshTokenRepository;
+import com.example.demo.service.JwtService;
+import com.example.demo.service.RefreshTokenService;
+import com.example.demo.service.RevokedTokenStore;
+import com.example.demo.utils.ClockConfig;
+import com.example.demo.utils.JwtProperties;
+import com.example.demo.utils.RevocationProperties;
+import com.example.demo.utils.TokenDigests;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.zonky.test.db.AutoConfigureEmbeddedDatabase;
+import lombok.val;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.HttpStatus;
+import org.springframework.security.authentication.AuthenticationManager;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static io.zonky.test.db.AutoConfigureEmbeddedDatabase.DatabaseProvider.ZONKY;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@AutoConfigureEmbeddedDatabase(provider = ZONKY)
+@ActiveProfiles("test")
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@EnableConfigurationProperties
+@Import({JwtService.class, JwtProperties.class, RevokedTokenStore.class, RevocationProperties.class, ClockConfig.class,
+        RefreshTokenService.class, RefreshConcurrencyTest.Metrics.class})
+class RefreshConcurrencyTest {
+    private static final int CLIENTS = 32;
+    private static final long MAX_LATENCY_MILLIS = 2_000;
+
+    @Autowired
+    private JwtService jwtService;
+
+    @Autowired
+    private RefreshTokenService refreshTokenService;
+
+    @Autowired
+    private RefreshTokenRepository refreshTokenRepository;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private AuthController authController;
+
+    @BeforeEach
+    void createController() {
+        authController = new AuthController(mock(AuthenticationManager.class), jwtService, refreshTokenService,
+                meterRegistry);
+    }
+
+    @AfterEach
+    void cleanUp() {
+        refreshTokenRepository.deleteAll();
+    }
+
+    @Test
+    @DisplayName("Parallel refreshes with the same token: exactly one rotates, the rest get 401 quickly")
+    void parallelRefreshRotatesOnce() throws Exception {
+        val token = refreshTokenService.createOrReplace("alice").getToken();
+
+        val statuses = new CopyOnWriteArrayList<Integer>();
+        val latencies = hammer(() -> statuses.add(authController.refresh(token).getStatusCode().value()));
+
+        assertEquals(1, statuses.stream().filter(status -> status == HttpStatus.OK.value()).count());
+        assertEquals(CLIENTS - 1, statuses.stream().filter(status -> status == HttpStatus.UNAUTHORIZED.value()).count());
+        assertNotEquals(TokenDigests.sha256Hex(token),
+                refreshTokenRepository.findByUsername("alice").orElseThrow().getTokenHash());
+        assertTrue(latencies[latencies.length - 1] < MAX_LATENCY_MILLIS,
+                () -> "максимальная задержка " + latencies[latencies.length - 1] + " мс");
+    }
+
+    @Test
+    @DisplayName("A replayed token is rejected after a successful rotation")
+    void replayAfterRotationIsRejected() {
+        val token = refreshTokenService.createOrReplace("alice").getToken();
+
+        assertEquals(HttpStatus.OK, authController.refresh(token).getStatusCode());
+        assertEquals(HttpStatus.UNAUTHORIZED, authController.refresh(token).getStatusCode());
+    }
+
+    @Test
+    @DisplayName("Concurrent logins for one user upsert a single row without unique violations")
+    void parallelLoginsUpsertOneRow() throws Exception {
+        val tokens = new CopyOnWriteArrayList<String>();
+        hammer(() -> tokens.add(refreshTokenService.createOrReplace("bob").getToken()));
+
+        assertEquals(CLIENTS, new HashSet<>(tokens).size());
+        assertEquals(1, refreshTokenRepository.findAll().stream()
+                .filter(row -> row.getUsername().equals("bob"))
+                .count());
+        val stored = refreshTokenRepository.findByUsername("bob").orElseThrow().getTokenHash();
+        assertTrue(tokens.stream().map(TokenDigests::sha256Hex).anyMatch(stored::equals));
+    }
+
+    private static long[] hammer(final Runnable call) throws Exception {
+        val start = new CountDownLatch(1);
+        val latencies = new long[CLIENTS];
+        try (ExecutorService executor = Executors.newFixedThreadPool(CLIENTS)) {
+            val futures = new ArrayList<Future<Long>>(CLIENTS);
+            for (int i = 0; i < CLIENTS; i++) {
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    val started = System.nanoTime();
+                    call.run();
+                    return (System.nanoTime() - started) / 1_000_000;
+                }));
+            }
+            start.countDown();
+            for (int i = 0; i < CLIENTS; i++) {
+                latencies[i] = futures.get(i).get();
+            }
+        }
+        Arrays.sort(latencies);
+        return latencies;
+    }
+
+    @TestConfiguration
+    static class Metrics {
+        @Bean
+        MeterRegistry meterRegistry() {
+            return new SimpleMeterRegistry();
+        }
+    }
+}
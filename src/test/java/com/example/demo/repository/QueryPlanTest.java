@@ -0,0 +1,333 @@
+package com.example.demo.repository;
+
+import com.example.demo.dto.PatchTaskDto;
+import com.example.demo.model.Task;
+import com.example.demo.utils.SearchCursor;
+import com.example.demo.utils.SearchQuery;
+import com.example.demo.utils.TaskCursor;
+import com.example.demo.utils.TokenDigests;
+import io.zonky.test.db.AutoConfigureEmbeddedDatabase;
+import jakarta.persistence.EntityManager;
+import lombok.val;
+import org.aopalliance.intercept.MethodInterceptor;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+import org.springframework.aop.framework.Advised;
+import org.springframework.aop.framework.ProxyFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+import static io.zonky.test.db.AutoConfigureEmbeddedDatabase.DatabaseProvider.ZONKY;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.params.provider.Arguments.arguments;
+
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@AutoConfigureEmbeddedDatabase(provider = ZONKY)
+@ActiveProfiles("test")
+class QueryPlanTest {
+    private static final UUID CURSOR_ID = UUID.fromString("00000000-0000-0000-0000-000000000000");
+    private static final LocalDate CREATED_AT = LocalDate.of(2025, 1, 15);
+    private static final LocalDate DEADLINE = LocalDate.of(2025, 2, 1);
+    private static final Instant NOW = Instant.parse("2025-01-01T00:00:00Z");
+    private static final Pageable PAGE = PageRequest.ofSize(51);
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private StatementRecorder recorder;
+
+    @Autowired
+    private TaskRepository taskRepository;
+
+    @Autowired
+    private RefreshTokenRepository refreshTokenRepository;
+
+    @Autowired
+    private RevokedAccessTokenRepository revokedAccessTokenRepository;
+
+    @BeforeEach
+    void seed() {
+        jdbcTemplate.execute("""
+                INSERT INTO todos (id, title, completed, created_at, deadline, ldap_uid)
+                SELECT gen_random_uuid(), 'Task ' || g, g % 3 = 0,
+                       DATE '2025-01-01' + (g % 60), DATE '2025-01-01' + (g % 90), 'user' || (g % 200)
+                FROM generate_series(1, 5000) g
+                """);
+        jdbcTemplate.execute("""
+                INSERT INTO subtasks (id, text, completed, task_id)
+                SELECT gen_random_uuid(), 'Subtask', false, id FROM todos
+                """);
+        jdbcTemplate.execute("""
+                INSERT INTO refresh_tokens (id, username, token_hash, expiry, revoked)
+                SELECT gen_random_uuid()::text, 'user' || g, encode(sha256(('token-' || g)::bytea), 'hex'),
+                       now() + INTERVAL '7 days', false
+                FROM generate_series(1, 200) g
+                """);
+        jdbcTemplate.execute("""
+                INSERT INTO revoked_access_tokens (digest, expires_at, revoked_at)
+                SELECT md5(g::text) || md5(g::text), now() + INTERVAL '15 minutes', now()
+                FROM generate_series(1, 1000) g
+                """);
+        jdbcTemplate.execute("ANALYZE");
+        jdbcTemplate.execute("SET LOCAL enable_seqscan = off");
+        entityManager.clear();
+    }
+
+    static Stream<Arguments> repositoryCalls() {
+        return Stream.of(
+                arguments("TaskRepository.findByldapUidOrderByCreatedAtAscIdAsc with subtasks",
+                        call(test -> test.taskRepository.findByldapUidOrderByCreatedAtAscIdAsc("user7", PAGE)
+                                .forEach(task -> task.getSubtasks().size()))),
+                arguments("TaskRepository.findPageAfter",
+                        call(test -> test.taskRepository.findPageAfter("user7", CREATED_AT, CURSOR_ID, PAGE))),
+                arguments("TaskRepository.findByldapUidAndCompletedTrueOrderByCreatedAtAscIdAsc",
+                        call(test -> test.taskRepository.findByldapUidAndCompletedTrueOrderByCreatedAtAscIdAsc(
+                                "user7", PAGE))),
+                arguments("TaskRepository.findCompletedPageAfter",
+                        call(test -> test.taskRepository.findCompletedPageAfter("user7", CREATED_AT, CURSOR_ID, PAGE))),
+                arguments("TaskRepository.findByldapUidAndDeadlineOrderByCreatedAtAscIdAsc",
+                        call(test -> test.taskRepository.findByldapUidAndDeadlineOrderByCreatedAtAscIdAsc(
+                                "user7", DEADLINE, PAGE))),
+                arguments("TaskRepository.findPageAfterByDeadline",
+                        call(test -> test.taskRepository.findPageAfterByDeadline(
+                                "user7", DEADLINE, CREATED_AT, CURSOR_ID, PAGE))),
+                arguments("TaskRepository.deleteByIdAndLdapUid",
+                        call(test -> test.taskRepository.deleteByIdAndLdapUid(CURSOR_ID, "user7"))),
+                arguments("TaskRepository.patch",
+                        call(test -> test.taskRepository.patch(CURSOR_ID, "user7",
+                                PatchTaskDto.builder().completed(true).build()))),
+                arguments("TaskRepository.findChangedSince",
+                        call(test -> test.taskRepository.findChangedSince("user7", 1))),
+                arguments("TaskRepository.findSnapshotPage",
+                        call(test -> {
+                            test.taskRepository.findSnapshotPage("user7", null, 51);
+                            test.taskRepository.findSnapshotPage("user7", new TaskCursor(CREATED_AT, CURSOR_ID), 51);
+                        })),
+                arguments("TaskRepository.findDeletedSince",
+                        call(test -> test.taskRepository.findDeletedSince("user7", 1))),
+                arguments("TaskRepository.countByDeadline",
+                        call(test -> test.taskRepository.countByDeadline("user7", CREATED_AT, DEADLINE, CREATED_AT))),
+                arguments("TaskRepository.streamByDeadlineBetween",
+                        call(test -> {
+                            try (Stream<Task> tasks = test.taskRepository.streamByDeadlineBetween(
+                                    "user7", CREATED_AT, DEADLINE)) {
+                                tasks.forEach(task -> { });
+                            }
+                        })),
+                arguments("TaskRepository.search",
+                        call(test -> {
+                            test.taskRepository.search("user7", SearchQuery.parse("task"), null, 51);
+                            test.taskRepository.search("user7", SearchQuery.parse("task"),
+                                    new SearchCursor(0.1f, CURSOR_ID), 51);
+                        })),
+                arguments("RefreshTokenRepository.findByTokenHash",
+                        call(test -> test.refreshTokenRepository.findByTokenHash(TokenDigests.sha256Hex("token-7")))),
+                arguments("RefreshTokenRepository.rotate",
+                        call(test -> test.refreshTokenRepository.rotate("user7", TokenDigests.sha256Hex("token-7"),
+                                TokenDigests.sha256Hex("token-7-next"), NOW))),
+                arguments("RefreshTokenRepository.revokeByTokenHash",
+                        call(test -> test.refreshTokenRepository.revokeByTokenHash(TokenDigests.sha256Hex("token-7")))),
+                arguments("RefreshTokenRepository.findPurgeable",
+                        call(test -> test.refreshTokenRepository.findPurgeable(NOW, "", 1000))),
+                arguments("RefreshTokenRepository.purgeBatch",
+                        call(test -> test.refreshTokenRepository.purgeBatch(NOW, "", 1000))),
+                arguments("RefreshTokenRepository.findByUsername",
+                        call(test -> test.refreshTokenRepository.findByUsername("user7"))),
+                arguments("RefreshTokenRepository.findAllByUsernameAndRevokedFalse",
+                        call(test -> test.refreshTokenRepository.findAllByUsernameAndRevokedFalse("user7"))),
+                arguments("RevokedAccessTokenRepository.findByRevokedAtAfterAndExpiresAtAfter",
+                        call(test -> test.revokedAccessTokenRepository.findByRevokedAtAfterAndExpiresAtAfter(NOW, NOW))),
+                arguments("RevokedAccessTokenRepository.deleteExpired",
+                        call(test -> test.revokedAccessTokenRepository.deleteExpired(NOW)))
+        );
+    }
+
+    @ParameterizedTest(name = "{0}")
+    @MethodSource("repositoryCalls")
+    void queryUsesIndex(final String name, final RepositoryCall call) throws Exception {
+        val statements = recorder.record(() -> call.invoke(this));
+
+        assertFalse(statements.isEmpty(), () -> name + " не выполнил ни одного запроса");
+        for (val statement : statements) {
+            val plan = explain(statement);
+            assertFalse(plan.contains("Seq Scan"),
+                    () -> name + " выполняет последовательное сканирование:\n" + statement.sql() + "\n" + plan);
+        }
+    }
+
+    private String explain(final RecordedStatement statement) {
+        return jdbcTemplate.execute((ConnectionCallback<String>) connection -> {
+            try (PreparedStatement explain = connection.prepareStatement("EXPLAIN " + statement.sql())) {
+                statement.bind(explain);
+                try (ResultSet rs = explain.executeQuery()) {
+                    val plan = new ArrayList<String>();
+                    while (rs.next()) {
+                        plan.add(rs.getString(1));
+                    }
+                    return String.join("\n", plan);
+                }
+            }
+        });
+    }
+
+    private static RepositoryCall call(final RepositoryCall call) {
+        return call;
+    }
+
+    @FunctionalInterface
+    interface RepositoryCall {
+        void invoke(QueryPlanTest test) throws Exception;
+    }
+
+    @FunctionalInterface
+    interface Action {
+        void run() throws Exception;
+    }
+
+    record Binding(Method setter, Object[] args) {
+    }
+
+    record RecordedStatement(String sql, List<Binding> bindings) {
+        void bind(final PreparedStatement statement) throws SQLException {
+            for (val binding : bindings) {
+                try {
+                    binding.setter().invoke(statement, binding.args());
+                } catch (final IllegalAccessException | InvocationTargetException thrown) {
+                    throw new SQLException("Не удалось повторить параметр запроса " + binding.setter().getName(),
+                            thrown.getCause() == null ? thrown : thrown.getCause());
+                }
+            }
+        }
+    }
+
+    @TestConfiguration
+    static class RecorderConfig {
+        @Bean
+        static StatementRecorder statementRecorder() {
+            return new StatementRecorder();
+        }
+    }
+
+    static final class StatementRecorder implements BeanPostProcessor {
+        private static final Pattern QUERY = Pattern.compile("^\\s*(select|with|insert|update|delete)\\b",
+                Pattern.CASE_INSENSITIVE);
+
+        private final List<RecordedStatement> recorded = new ArrayList<>();
+        private volatile boolean recording;
+
+        @Override
+        public Object postProcessAfterInitialization(final Object bean, final String beanName) {
+            if (!(bean instanceof DataSource)) {
+                return bean;
+            }
+            final MethodInterceptor interceptor = invocation -> {
+                val result = invocation.proceed();
+                return result instanceof Connection connection ? connection(connection) : result;
+            };
+            if (bean instanceof Advised advised && !advised.isFrozen()) {
+                advised.addAdvice(0, interceptor);
+                return bean;
+            }
+            val factory = new ProxyFactory(bean);
+            factory.addAdvice(interceptor);
+            return factory.getProxy();
+        }
+
+        synchronized List<RecordedStatement> record(final Action action) throws Exception {
+            recorded.clear();
+            recording = true;
+            try {
+                action.run();
+            } finally {
+                recording = false;
+            }
+            final Map<String, RecordedStatement> distinct = new LinkedHashMap<>();
+            recorded.forEach(statement -> distinct.putIfAbsent(statement.sql(), statement));
+            return List.copyOf(distinct.values());
+        }
+
+        private Connection connection(final Connection target) {
+            return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(),
+                    new Class<?>[]{Connection.class}, (proxy, method, args) -> {
+                        val result = forward(target, method, args);
+                        if (recording && result instanceof PreparedStatement statement
+                                && method.getName().startsWith("prepare") && args[0] instanceof String sql) {
+                            return statement(statement, sql);
+                        }
+                        return result;
+                    });
+        }
+
+        private PreparedStatement statement(final PreparedStatement target, final String sql) {
+            final Map<Integer, Binding> bindings = new TreeMap<>();
+            return (PreparedStatement) Proxy.newProxyInstance(PreparedStatement.class.getClassLoader(),
+                    new Class<?>[]{PreparedStatement.class}, (proxy, method, args) -> {
+                        if (isSetter(method)) {
+                            bindings.put((Integer) args[0], new Binding(method, args.clone()));
+                        } else if ("clearParameters".equals(method.getName())) {
+                            bindings.clear();
+                        } else if (isExecution(method) && recording && QUERY.matcher(sql).find()) {
+                            synchronized (recorded) {
+                                recorded.add(new RecordedStatement(sql, List.copyOf(bindings.values())));
+                            }
+                        }
+                        return forward(target, method, args);
+                    });
+        }
+
+        private static boolean isSetter(final Method method) {
+            return method.getName().startsWith("set")
+                    && method.getParameterCount() >= 2
+                    && method.getParameterTypes()[0] == int.class;
+        }
+
+        private static boolean isExecution(final Method method) {
+            return method.getParameterCount() == 0
+                    && (method.getName().startsWith("execute") || "addBatch".equals(method.getName()));
+        }
+
+        private static Object forward(final Object target, final Method method, final Object[] args)
+                throws Throwable {
+            try {
+                return method.invoke(target, args);
+            } catch (final InvocationTargetException thrown) {
+                throw thrown.getCause();
+            }
+        }
+    }
+}
@@ -0,0 +1,85 @@
+package com.example.demo.repository;
+
+import com.example.demo.model.Task;
+import com.example.demo.utils.TaskCursor;
+import io.zonky.test.db.AutoConfigureEmbeddedDatabase;
+import lombok.val;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.UUID;
+
+import static io.zonky.test.db.AutoConfigureEmbeddedDatabase.DatabaseProvider.ZONKY;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@AutoConfigureEmbeddedDatabase(provider = ZONKY)
+@ActiveProfiles("test")
+class TaskKeysetPaginationTest {
+    private static final int PAGE_SIZE = 2;
+
+    @Autowired
+    private TaskRepository taskRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void seed() {
+        for (int i = 0; i < 5; i++) {
+            insert("alice", LocalDate.of(2025, 1, 1));
+        }
+        insert("alice", LocalDate.of(2024, 12, 31));
+        insert("alice", LocalDate.of(2025, 1, 2));
+        insert("bob", LocalDate.of(2025, 1, 1));
+    }
+
+    @Test
+    @DisplayName("Walking pages by cursor returns every task once in (created_at, id) order, also across equal dates")
+    void walksPagesAcrossTies() {
+        val expected = jdbcTemplate.queryForList(
+                "SELECT id FROM todos WHERE ldap_uid = 'alice' ORDER BY created_at, id", UUID.class);
+
+        val seen = new ArrayList<UUID>();
+        var page = taskRepository.findByldapUidOrderByCreatedAtAscIdAsc("alice", PageRequest.ofSize(PAGE_SIZE));
+        while (!page.isEmpty()) {
+            assertTrue(page.size() <= PAGE_SIZE);
+            page.forEach(task -> seen.add(task.getId()));
+            val cursor = TaskCursor.decode(TaskCursor.after(page.getLast()).encode());
+            page = taskRepository.findPageAfter("alice", cursor.createdAt(), cursor.id(), PageRequest.ofSize(PAGE_SIZE));
+        }
+
+        assertEquals(expected, seen);
+    }
+
+    @Test
+    @DisplayName("A cursor inside a run of equal dates continues with the next id of the same date")
+    void continuesWithinTie() {
+        val tied = jdbcTemplate.queryForList(
+                "SELECT id FROM todos WHERE ldap_uid = 'alice' AND created_at = DATE '2025-01-01' ORDER BY id",
+                UUID.class);
+
+        val page = taskRepository.findPageAfter("alice", LocalDate.of(2025, 1, 1), tied.get(1),
+                PageRequest.ofSize(PAGE_SIZE));
+
+        assertEquals(tied.subList(2, 4), page.stream().map(Task::getId).toList());
+    }
+
+    private void insert(final String ldapUid, final LocalDate createdAt) {
+        jdbcTemplate.update("""
+                INSERT INTO todos (id, title, completed, created_at, ldap_uid)
+                VALUES (?, 'Task', false, ?, ?)
+                """, UUID.randomUUID(), createdAt, ldapUid);
+    }
+}
@@ -0,0 +1,85 @@
+package com.example.demo.repository;
+
+import com.example.demo.dto.PatchTaskDto;
+import com.example.demo.dto.SubtaskResponse;
+import io.zonky.test.db.AutoConfigureEmbeddedDatabase;
+import lombok.val;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.LocalDate;
+import java.util.UUID;
+
+import static io.zonky.test.db.AutoConfigureEmbeddedDatabase.DatabaseProvider.ZONKY;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@AutoConfigureEmbeddedDatabase(provider = ZONKY)
+@ActiveProfiles("test")
+class TaskRepositoryPatchTest {
+    private static final UUID TASK_ID = UUID.randomUUID();
+
+    @Autowired
+    private TaskRepository taskRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void seed() {
+        jdbcTemplate.update("""
+                INSERT INTO todos (id, title, completed, created_at, deadline, ldap_uid)
+                VALUES (?, 'Original', false, DATE '2025-01-01', DATE '2025-02-01', 'alice')
+                """, TASK_ID);
+        jdbcTemplate.update("""
+                INSERT INTO subtasks (id, text, completed, task_id)
+                VALUES (gen_random_uuid(), 'First', false, ?), (gen_random_uuid(), 'Second', true, ?)
+                """, TASK_ID, TASK_ID);
+    }
+
+    @Test
+    @DisplayName("Patching only completed keeps the other columns and returns the subtasks")
+    void patchCompletedOnly() {
+        val patched = taskRepository.patch(TASK_ID, "alice", PatchTaskDto.builder().completed(true).build())
+                .orElseThrow();
+
+        assertTrue(patched.completed());
+        assertEquals("Original", patched.title());
+        assertEquals(LocalDate.of(2025, 2, 1), patched.deadline());
+        assertEquals(2, patched.subtasks().size());
+        assertEquals(1, patched.subtasks().stream().filter(SubtaskResponse::completed).count());
+        assertEquals(Boolean.TRUE, jdbcTemplate.queryForObject(
+                "SELECT completed FROM todos WHERE id = ?", Boolean.class, TASK_ID));
+    }
+
+    @Test
+    @DisplayName("Patching sets several fields at once")
+    void patchSeveralFields() {
+        val patched = taskRepository.patch(TASK_ID, "alice", PatchTaskDto.builder()
+                        .title("Renamed")
+                        .deadline(LocalDate.of(2025, 3, 1))
+                        .build())
+                .orElseThrow();
+
+        assertEquals("Renamed", patched.title());
+        assertEquals(LocalDate.of(2025, 3, 1), patched.deadline());
+        assertEquals(false, patched.completed());
+    }
+
+    @Test
+    @DisplayName("Someone else's or a missing task is not touched")
+    void patchForeignTask() {
+        assertTrue(taskRepository.patch(TASK_ID, "mallory", PatchTaskDto.builder().completed(true).build()).isEmpty());
+        assertTrue(taskRepository.patch(UUID.randomUUID(), "alice", PatchTaskDto.builder().title("x").build()).isEmpty());
+        assertEquals(Boolean.FALSE, jdbcTemplate.queryForObject(
+                "SELECT completed FROM todos WHERE id = ?", Boolean.class, TASK_ID));
+    }
+}
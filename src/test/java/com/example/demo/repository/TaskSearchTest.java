@@ -0,0 +1,122 @@
+package com.example.demo.repository;
+
+import com.example.demo.dto.TaskSearchHit;
+import com.example.demo.utils.SearchCursor;
+import com.example.demo.utils.SearchQuery;
+import io.zonky.test.db.AutoConfigureEmbeddedDatabase;
+import lombok.val;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static io.zonky.test.db.AutoConfigureEmbeddedDatabase.DatabaseProvider.ZONKY;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@AutoConfigureEmbeddedDatabase(provider = ZONKY)
+@ActiveProfiles("test")
+class TaskSearchTest {
+    @Autowired
+    private TaskRepository taskRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    @DisplayName("Title matches rank above subtask matches, other users are not searched")
+    void rankedAndScoped() {
+        val inTitle = insertTask("alice", "Купить молоко");
+        val inSubtask = insertTask("alice", "Магазин");
+        insertSubtask(inSubtask, "молоко и хлеб");
+        insertTask("alice", "Позвонить маме");
+        insertTask("bob", "Купить молоко");
+
+        val hits = taskRepository.search("alice", SearchQuery.parse("молок"), null, 10);
+
+        assertEquals(List.of(inTitle, inSubtask), ids(hits));
+        assertTrue(hits.get(0).rank() > hits.get(1).rank());
+        assertEquals(1, hits.get(1).task().subtasks().size());
+    }
+
+    @Test
+    @DisplayName("Prefixes match, and the vector follows title and subtask edits")
+    void incrementalVector() {
+        val task = insertTask("alice", "Report");
+        assertEquals(List.of(task), ids(taskRepository.search("alice", SearchQuery.parse("rep"), null, 10)));
+        assertTrue(taskRepository.search("alice", SearchQuery.parse("invoice"), null, 10).isEmpty());
+
+        val subtask = insertSubtask(task, "Send invoice");
+        assertEquals(List.of(task), ids(taskRepository.search("alice", SearchQuery.parse("invoic"), null, 10)));
+
+        jdbcTemplate.update("DELETE FROM subtasks WHERE id = ?", subtask);
+        assertTrue(taskRepository.search("alice", SearchQuery.parse("invoic"), null, 10).isEmpty());
+
+        jdbcTemplate.update("UPDATE todos SET title = 'Budget' WHERE id = ?", task);
+        assertTrue(taskRepository.search("alice", SearchQuery.parse("rep"), null, 10).isEmpty());
+        assertEquals(List.of(task), ids(taskRepository.search("alice", SearchQuery.parse("budg"), null, 10)));
+    }
+
+    @Test
+    @DisplayName("Partially typed words match before the stemmer would recognise them")
+    void partialWords() {
+        val meeting = insertTask("alice", "Weekly meeting");
+        val running = insertTask("alice", "Running shoes");
+        val milk = insertTask("alice", "Купить молоко");
+
+        assertEquals(List.of(meeting), ids(taskRepository.search("alice", SearchQuery.parse("meetin"), null, 10)));
+        assertEquals(List.of(running), ids(taskRepository.search("alice", SearchQuery.parse("runnin"), null, 10)));
+        assertEquals(List.of(milk), ids(taskRepository.search("alice", SearchQuery.parse("купить моло"), null, 10)));
+        assertEquals(List.of(milk), ids(taskRepository.search("alice", SearchQuery.parse("молока"), null, 10)));
+        assertEquals(List.of(meeting), ids(taskRepository.search("alice", SearchQuery.parse("MEETINGS weekl"), null, 10)));
+    }
+
+    @Test
+    @DisplayName("Cursor pages through equally ranked results without gaps or duplicates")
+    void pagination() {
+        val expected = new ArrayList<UUID>();
+        for (int i = 0; i < 7; i++) {
+            expected.add(insertTask("alice", "Meeting " + i));
+        }
+
+        val seen = new ArrayList<UUID>();
+        SearchCursor cursor = null;
+        do {
+            val hits = taskRepository.search("alice", SearchQuery.parse("meet"), cursor, 3);
+            seen.addAll(ids(hits));
+            cursor = hits.size() < 3 ? null : SearchCursor.after(hits.getLast());
+        } while (cursor != null);
+
+        assertEquals(expected.size(), seen.size());
+        assertTrue(seen.containsAll(expected));
+    }
+
+    private UUID insertTask(final String ldapUid, final String title) {
+        val id = UUID.randomUUID();
+        jdbcTemplate.update("""
+                INSERT INTO todos (id, title, completed, created_at, ldap_uid)
+                VALUES (?, ?, false, CURRENT_DATE, ?)
+                """, id, title, ldapUid);
+        return id;
+    }
+
+    private UUID insertSubtask(final UUID taskId, final String text) {
+        val id = UUID.randomUUID();
+        jdbcTemplate.update("INSERT INTO subtasks (id, text, completed, task_id) VALUES (?, ?, false, ?)",
+                id, text, taskId);
+        return id;
+    }
+
+    private static List<UUID> ids(final List<TaskSearchHit> hits) {
+        return hits.stream().map(hit -> hit.task().id()).toList();
+    }
+}
@@ -0,0 +1,54 @@
+package com.example.demo.security;
+
+import lombok.val;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.authentication.AuthenticationManager;
+import org.springframework.security.authentication.BadCredentialsException;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class CachingAuthenticationManagerTest {
+    private final AuthenticationManager delegate = mock(AuthenticationManager.class);
+    private final CachingAuthenticationManager manager =
+            new CachingAuthenticationManager(delegate, Duration.ofMinutes(1), 100);
+
+    @Test
+    @DisplayName("A repeated login with the same credentials is answered from the cache")
+    void repeatedLoginSkipsDirectory() {
+        val authenticated = UsernamePasswordAuthenticationToken.authenticated("alice", null, List.of());
+        when(delegate.authenticate(any())).thenReturn(authenticated);
+
+        manager.authenticate(new UsernamePasswordAuthenticationToken("alice", "password"));
+        val second = manager.authenticate(new UsernamePasswordAuthenticationToken("alice", "password"));
+
+        assertSame(authenticated, second);
+        verify(delegate, times(1)).authenticate(any());
+    }
+
+    @Test
+    @DisplayName("A different password or a failed bind always reaches the directory")
+    void otherCredentialsAndFailuresAreNotCached() {
+        when(delegate.authenticate(any()))
+                .thenReturn(UsernamePasswordAuthenticationToken.authenticated("alice", null, List.of()))
+                .thenThrow(new BadCredentialsException("bad"));
+
+        manager.authenticate(new UsernamePasswordAuthenticationToken("alice", "password"));
+        assertThrows(BadCredentialsException.class,
+                () -> manager.authenticate(new UsernamePasswordAuthenticationToken("alice", "guess")));
+        assertThrows(BadCredentialsException.class,
+                () -> manager.authenticate(new UsernamePasswordAuthenticationToken("alice", "guess")));
+
+        verify(delegate, times(3)).authenticate(any());
+    }
+}
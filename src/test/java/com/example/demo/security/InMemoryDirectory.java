@@ -0,0 +1,88 @@
+package com.example.demo.security;
+
+import com.example.demo.utils.LdapPoolProperties;
+import com.example.demo.utils.LdapProperties;
+import com.unboundid.ldap.listener.InMemoryDirectoryServer;
+import com.unboundid.ldap.listener.InMemoryDirectoryServerConfig;
+import com.unboundid.ldap.sdk.Attribute;
+import com.unboundid.ldap.sdk.Entry;
+import com.unboundid.ldap.sdk.LDAPConnectionPool;
+import com.unboundid.ldap.sdk.LDAPException;
+import lombok.val;
+import org.springframework.ldap.core.support.LdapContextSource;
+
+public final class InMemoryDirectory implements AutoCloseable {
+    public static final String BASE = "dc=example,dc=com";
+    public static final String ADMIN_DN = "cn=admin," + BASE;
+    public static final String ADMIN_PASSWORD = "admin";
+    public static final String PASSWORD = "password";
+
+    private final InMemoryDirectoryServer server;
+
+    private InMemoryDirectory(final InMemoryDirectoryServer server) {
+        this.server = server;
+    }
+
+    public static InMemoryDirectory start(final int users) throws LDAPException {
+        val config = new InMemoryDirectoryServerConfig(BASE);
+        config.setSchema(null);
+        config.addAdditionalBindCredentials(ADMIN_DN, ADMIN_PASSWORD);
+        val server = new InMemoryDirectoryServer(config);
+        server.add(new Entry(BASE,
+                new Attribute("objectClass", "top", "domain"),
+                new Attribute("dc", "example")));
+        server.add(person("alice"));
+        for (int i = 0; i < users; i++) {
+            server.add(person(username(i)));
+        }
+        server.startListening();
+        return new InMemoryDirectory(server);
+    }
+
+    private static Entry person(final String name) {
+        return new Entry("cn=" + name + "," + BASE,
+                new Attribute("objectClass", "person"),
+                new Attribute("cn", name),
+                new Attribute("sn", name),
+                new Attribute("userPassword", PASSWORD));
+    }
+
+    public static String username(final int index) {
+        return "user" + index;
+    }
+
+    public String url() {
+        return "ldap://localhost:" + server.getListenPort();
+    }
+
+    public LdapProperties properties() {
+        val properties = new LdapProperties();
+        properties.setUrls(url());
+        properties.setBase(BASE);
+        properties.setUsername(ADMIN_DN);
+        properties.setPassword(ADMIN_PASSWORD);
+        return properties;
+    }
+
+    public LDAPConnectionPool pool(final int maxConnections) throws LDAPException {
+        val pool = new LdapPoolProperties();
+        pool.setInitialConnections(1);
+        pool.setMaxConnections(maxConnections);
+        return LdapConnectionPools.create(properties(), pool);
+    }
+
+    public LdapContextSource contextSource() {
+        val contextSource = new LdapContextSource();
+        contextSource.setUrl(url());
+        contextSource.setBase(BASE);
+        contextSource.setUserDn(ADMIN_DN);
+        contextSource.setPassword(ADMIN_PASSWORD);
+        contextSource.afterPropertiesSet();
+        return contextSource;
+    }
+
+    @Override
+    public void close() {
+        server.shutDown(true);
+    }
+}
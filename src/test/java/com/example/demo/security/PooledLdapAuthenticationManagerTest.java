@@ -0,0 +1,95 @@
+package com.example.demo.security;
+
+import com.unboundid.ldap.sdk.LDAPConnectionPool;
+import lombok.val;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.authentication.BadCredentialsException;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class PooledLdapAuthenticationManagerTest {
+    private static final int MAX_CONNECTIONS = 4;
+
+    private static InMemoryDirectory directory;
+
+    private LDAPConnectionPool pool;
+    private PooledLdapAuthenticationManager manager;
+
+    @BeforeAll
+    static void startDirectory() throws Exception {
+        directory = InMemoryDirectory.start(10);
+    }
+
+    @AfterAll
+    static void stopDirectory() {
+        directory.close();
+    }
+
+    @BeforeEach
+    void createPool() throws Exception {
+        pool = directory.pool(MAX_CONNECTIONS);
+        manager = new PooledLdapAuthenticationManager(pool, InMemoryDirectory.BASE);
+    }
+
+    @AfterEach
+    void closePool() {
+        pool.close();
+    }
+
+    @Test
+    @DisplayName("A valid bind returns an authenticated token without credentials")
+    void validCredentials() {
+        val result = manager.authenticate(new UsernamePasswordAuthenticationToken("alice", InMemoryDirectory.PASSWORD));
+
+        assertTrue(result.isAuthenticated());
+        assertEquals("alice", result.getName());
+        assertNull(result.getCredentials());
+    }
+
+    @Test
+    @DisplayName("Wrong, empty or unknown credentials are rejected as bad credentials")
+    void badCredentials() {
+        assertThrows(BadCredentialsException.class,
+                () -> manager.authenticate(new UsernamePasswordAuthenticationToken("alice", "wrong")));
+        assertThrows(BadCredentialsException.class,
+                () -> manager.authenticate(new UsernamePasswordAuthenticationToken("alice", "")));
+        assertThrows(BadCredentialsException.class,
+                () -> manager.authenticate(new UsernamePasswordAuthenticationToken("nobody", "secret")));
+    }
+
+    @Test
+    @DisplayName("Concurrent logins all succeed and reuse pooled connections instead of opening one per bind")
+    void connectionsAreReused() throws Exception {
+        final List<Callable<Authentication>> logins = IntStream.range(0, 200)
+                .mapToObj(i -> (Callable<Authentication>) () -> manager.authenticate(
+                        new UsernamePasswordAuthenticationToken(InMemoryDirectory.username(i % 10),
+                                InMemoryDirectory.PASSWORD)))
+                .toList();
+        try (ExecutorService executor = Executors.newFixedThreadPool(16)) {
+            for (val future : executor.invokeAll(logins)) {
+                assertTrue(future.get().isAuthenticated());
+            }
+        }
+
+        val statistics = pool.getConnectionPoolStatistics();
+        assertTrue(statistics.getNumSuccessfulConnectionAttempts() <= MAX_CONNECTIONS,
+                () -> "открыто соединений: " + statistics.getNumSuccessfulConnectionAttempts());
+        assertEquals(0, statistics.getNumFailedCheckouts());
+    }
+}
@@ -0,0 +1,124 @@
+package com.example.demo.security;
+
+import com.example.demo.dto.PatchTaskDto;
+import com.example.demo.dto.TaskDto;
+import com.example.demo.mapper.TaskMapperImpl;
+import com.example.demo.service.TaskPageCache;
+import com.example.demo.service.TaskService;
+import com.example.demo.utils.TaskCacheProperties;
+import com.unboundid.ldap.sdk.LDAPConnectionPool;
+import io.zonky.test.db.AutoConfigureEmbeddedDatabase;
+import lombok.val;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
+import org.springframework.boot.autoconfigure.jackson.JacksonAutoConfiguration;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.security.authentication.AuthenticationManager;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Supplier;
+
+import static io.zonky.test.db.AutoConfigureEmbeddedDatabase.DatabaseProvider.ZONKY;
+
+@Tag("load")
+@Slf4j
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@AutoConfigureEmbeddedDatabase(provider = ZONKY)
+@ActiveProfiles("test")
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@ImportAutoConfiguration(JacksonAutoConfiguration.class)
+@Import({TaskService.class, TaskMapperImpl.class, TaskPageCache.class, TaskCacheProperties.class})
+class ThreadModelComparisonTest {
+    private static final int USERS = 200;
+    private static final int WORKFLOWS = Integer.getInteger("load.workflows", 4_000);
+    private static final int PLATFORM_THREADS = 200;
+
+    private static InMemoryDirectory directory;
+
+    @Autowired
+    private TaskService taskService;
+
+    @BeforeAll
+    static void startDirectory() throws Exception {
+        directory = InMemoryDirectory.start(USERS);
+    }
+
+    @AfterAll
+    static void stopDirectory() {
+        directory.close();
+    }
+
+    @Test
+    @DisplayName("Concurrent login + CRUD on a platform pool versus virtual threads")
+    void comparePlatformAndVirtualThreads() throws Exception {
+        try (LDAPConnectionPool pool = directory.pool(20)) {
+            val manager = new PooledLdapAuthenticationManager(pool, InMemoryDirectory.BASE);
+            run("warm-up", () -> Executors.newFixedThreadPool(PLATFORM_THREADS), manager, WORKFLOWS / 10);
+            run("platform", () -> Executors.newFixedThreadPool(PLATFORM_THREADS), manager, WORKFLOWS);
+            run("virtual", Executors::newVirtualThreadPerTaskExecutor, manager, WORKFLOWS);
+        }
+    }
+
+    private void run(final String mode, final Supplier<ExecutorService> executors,
+                     final AuthenticationManager manager, final int workflows) throws Exception {
+        val calls = new ArrayList<Callable<Long>>(workflows);
+        for (int i = 0; i < workflows; i++) {
+            val username = InMemoryDirectory.username(i % USERS);
+            calls.add(() -> workflow(manager, username));
+        }
+
+        val started = System.nanoTime();
+        val latencies = new long[workflows];
+        try (ExecutorService executor = executors.get()) {
+            val futures = executor.invokeAll(calls);
+            for (int i = 0; i < workflows; i++) {
+                latencies[i] = futures.get(i).get();
+            }
+        }
+        val elapsedMillis = (System.nanoTime() - started) / 1_000_000;
+
+        Arrays.sort(latencies);
+        log.info("{}: {} сценариев за {} мс, {} сценариев/с, p50={} мс, p95={} мс, p99={} мс",
+                mode, workflows, elapsedMillis, workflows * 1000L / Math.max(1, elapsedMillis),
+                percentile(latencies, 50), percentile(latencies, 95), percentile(latencies, 99));
+    }
+
+    private long workflow(final AuthenticationManager manager, final String username) {
+        val started = System.nanoTime();
+        val authentication = manager.authenticate(
+                new UsernamePasswordAuthenticationToken(username, InMemoryDirectory.PASSWORD));
+        SecurityContextHolder.getContext().setAuthentication(authentication);
+        try {
+            val created = taskService.createTask(TaskDto.builder().title("Load").subtasks(List.of()).build());
+            taskService.getUserTasks(null, 50);
+            taskService.patchTask(created.id(), PatchTaskDto.builder().completed(true).build());
+            taskService.deleteTask(created.id());
+        } finally {
+            SecurityContextHolder.clearContext();
+        }
+        return (System.nanoTime() - started) / 1_000_000;
+    }
+
+    private static long percentile(final long[] sorted, final int percentile) {
+        return sorted[Math.min(sorted.length - 1, sorted.length * percentile / 100)];
+    }
+}
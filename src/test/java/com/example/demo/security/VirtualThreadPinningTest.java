@@ -0,0 +1,123 @@
+package com.example.demo.security;
+
+import com.example.demo.repository.TaskRepository;
+import com.unboundid.ldap.sdk.LDAPConnectionPool;
+import io.zonky.test.db.AutoConfigureEmbeddedDatabase;
+import jdk.jfr.consumer.RecordedFrame;
+import jdk.jfr.consumer.RecordingStream;
+import lombok.val;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledForJreRange;
+import org.junit.jupiter.api.condition.JRE;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Duration;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static io.zonky.test.db.AutoConfigureEmbeddedDatabase.DatabaseProvider.ZONKY;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@AutoConfigureEmbeddedDatabase(provider = ZONKY)
+@ActiveProfiles("test")
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class VirtualThreadPinningTest {
+    private static final int CALLS = 200;
+    private static final String PINNED = "jdk.VirtualThreadPinned";
+
+    private static InMemoryDirectory directory;
+
+    @Autowired
+    private TaskRepository taskRepository;
+
+    @BeforeAll
+    static void startDirectory() throws Exception {
+        directory = InMemoryDirectory.start(0);
+    }
+
+    @AfterAll
+    static void stopDirectory() {
+        directory.close();
+    }
+
+    @Test
+    @EnabledForJreRange(max = JRE.JAVA_23)
+    @DisplayName("The JFR probe sees a virtual thread blocking inside synchronized")
+    void probeDetectsPinning() throws Exception {
+        val monitor = new Object();
+        val pinned = recordPinning(List.of(VirtualThreadPinningTest.class.getName()), () -> {
+            synchronized (monitor) {
+                Thread.sleep(5);
+            }
+            return null;
+        });
+
+        assertFalse(pinned.isEmpty());
+    }
+
+    @Test
+    @DisplayName("Repository queries on virtual threads do not pin carriers in PgJDBC or Hikari")
+    void jdbcDoesNotPin() throws Exception {
+        val pinned = recordPinning(List.of("org.postgresql.", "com.zaxxer.hikari."),
+                () -> taskRepository.findByldapUidOrderByCreatedAtAscIdAsc("alice", PageRequest.ofSize(10)));
+
+        assertTrue(pinned.isEmpty(), () -> "закрепление несущего потока: " + pinned);
+    }
+
+    @Test
+    @DisplayName("Pooled LDAP binds on virtual threads do not pin carriers")
+    void ldapBindDoesNotPin() throws Exception {
+        try (LDAPConnectionPool pool = directory.pool(4)) {
+            val manager = new PooledLdapAuthenticationManager(pool, InMemoryDirectory.BASE);
+            val pinned = recordPinning(List.of("com.unboundid.", "com.example.demo.security."),
+                    () -> manager.authenticate(
+                            new UsernamePasswordAuthenticationToken("alice", InMemoryDirectory.PASSWORD)));
+
+            assertTrue(pinned.isEmpty(), () -> "закрепление несущего потока: " + pinned);
+        }
+    }
+
+    private static List<String> recordPinning(final List<String> packages, final Callable<Object> call) throws Exception {
+        val pinned = new CopyOnWriteArrayList<String>();
+        try (RecordingStream stream = new RecordingStream()) {
+            stream.enable(PINNED).withThreshold(Duration.ZERO).withStackTrace();
+            stream.onEvent(PINNED, event -> {
+                if (event.getStackTrace() == null) {
+                    return;
+                }
+                event.getStackTrace().getFrames().stream()
+                        .map(RecordedFrame::getMethod)
+                        .map(method -> method.getType().getName() + "." + method.getName())
+                        .filter(frame -> packages.stream().anyMatch(frame::startsWith))
+                        .findFirst()
+                        .ifPresent(pinned::add);
+            });
+            stream.startAsync();
+
+            try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+                for (val future : executor.invokeAll(Collections.nCopies(CALLS, call))) {
+                    future.get();
+                }
+            }
+            stream.stop();
+        }
+        return pinned;
+    }
+}
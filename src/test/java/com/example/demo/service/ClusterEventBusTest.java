@@ -0,0 +1,192 @@
+package com.example.demo.service;
+
+import com.example.demo.dto.TaskEvent;
+import com.example.demo.dto.TaskEventType;
+import com.example.demo.dto.TaskResponse;
+import com.example.demo.dto.TokenRevokedEvent;
+import com.example.demo.utils.ClusterBusProperties;
+import com.example.demo.utils.RevocationProperties;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.zonky.test.db.AutoConfigureEmbeddedDatabase;
+import lombok.val;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
+import org.springframework.boot.autoconfigure.jackson.JacksonAutoConfiguration;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.UUID;
+
+import static io.zonky.test.db.AutoConfigureEmbeddedDatabase.DatabaseProvider.ZONKY;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.Mockito.after;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@AutoConfigureEmbeddedDatabase(provider = ZONKY)
+@ActiveProfiles("test")
+@ImportAutoConfiguration(JacksonAutoConfiguration.class)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class ClusterEventBusTest {
+    private static final long WAIT_MILLIS = 10_000;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private DataSourceProperties dataSourceProperties;
+    private Node first;
+    private Node second;
+
+    @BeforeEach
+    void startNodes() throws InterruptedException {
+        dataSourceProperties = jdbcTemplate.execute((ConnectionCallback<DataSourceProperties>) connection -> {
+            val properties = new DataSourceProperties();
+            properties.setUrl(connection.getMetaData().getURL());
+            properties.setUsername(connection.getMetaData().getUserName());
+            return properties;
+        });
+        first = new Node();
+        second = new Node();
+        first.awaitListening();
+        second.awaitListening();
+    }
+
+    @AfterEach
+    void stopNodes() throws InterruptedException {
+        first.bus.stop();
+        second.bus.stop();
+    }
+
+    @Test
+    @DisplayName("Task events invalidate caches and reach subscribers on other nodes only")
+    void taskEventsFanOut() {
+        val id = UUID.randomUUID();
+        first.bus.onTaskEvent(TaskEvent.builder()
+                .username("alice")
+                .type(TaskEventType.CREATED)
+                .taskId(id)
+                .task(TaskResponse.builder()
+                        .id(id)
+                        .title("Remote")
+                        .createdAt(LocalDate.of(2025, 1, 15))
+                        .subtasks(List.of())
+                        .build())
+                .build());
+
+        verify(second.cache, timeout(WAIT_MILLIS)).invalidate("alice");
+        verify(second.broker, timeout(WAIT_MILLIS)).publish(argThat(event -> "alice".equals(event.username())
+                && event.type() == TaskEventType.CREATED
+                && id.equals(event.taskId())
+                && "Remote".equals(event.task().title())));
+        verify(first.cache, after(500).never()).invalidate(anyString());
+        verify(first.broker, never()).publish(any());
+    }
+
+    @Test
+    @DisplayName("Several events for one user within a flush are coalesced into a resync")
+    void eventsAreCoalesced() {
+        for (int i = 0; i < 3; i++) {
+            first.bus.onTaskEvent(TaskEvent.builder()
+                    .username("bob")
+                    .type(TaskEventType.DELETED)
+                    .taskId(UUID.randomUUID())
+                    .build());
+        }
+
+        verify(second.broker, timeout(WAIT_MILLIS)).publish(argThat(event -> event.type() == TaskEventType.RESYNC));
+        verify(second.broker, after(500).never()).publish(argThat(event -> event.type() == TaskEventType.DELETED));
+    }
+
+    @Test
+    @DisplayName("Revoked access tokens are remembered on other nodes")
+    void revocationsFanOut() {
+        val expiresAt = Instant.now().plus(Duration.ofMinutes(15));
+
+        first.bus.onTokenRevoked(TokenRevokedEvent.builder()
+                .digest("digest")
+                .expiresAt(expiresAt)
+                .build());
+
+        verify(second.store, timeout(WAIT_MILLIS)).remember("digest", expiresAt);
+    }
+
+    @Test
+    @DisplayName("Bus refuses to start without the shared revocation store")
+    void requiresSharedRevocations() {
+        val bus = new ClusterEventBus(new ClusterBusProperties().setEnabled(true), new RevocationProperties(),
+                dataSourceProperties, objectMapper, mock(TaskPageCache.class), mock(TaskEventBroker.class),
+                mock(RevokedTokenStore.class), new SimpleMeterRegistry());
+
+        assertThrows(IllegalStateException.class, bus::start);
+    }
+
+    @Test
+    @DisplayName("Listener reconnects after losing its connection and resynchronises local state")
+    void reconnectResyncs() throws InterruptedException {
+        jdbcTemplate.queryForObject("SELECT pg_terminate_backend(?)", Boolean.class, second.bus.backendPid());
+
+        verify(second.cache, timeout(WAIT_MILLIS)).invalidateAll();
+        verify(second.broker, timeout(WAIT_MILLIS)).resyncAll();
+        second.awaitListening();
+
+        first.bus.onTaskEvent(TaskEvent.builder()
+                .username("carol")
+                .type(TaskEventType.DELETED)
+                .taskId(UUID.randomUUID())
+                .build());
+
+        verify(second.cache, timeout(WAIT_MILLIS)).invalidate("carol");
+    }
+
+    private final class Node {
+        final TaskPageCache cache = mock(TaskPageCache.class);
+        final TaskEventBroker broker = mock(TaskEventBroker.class);
+        final RevokedTokenStore store = mock(RevokedTokenStore.class);
+        final ClusterEventBus bus;
+
+        Node() {
+            val props = new ClusterBusProperties()
+                    .setEnabled(true)
+                    .setChannel("task_events_test")
+                    .setPollTimeout(Duration.ofMillis(200))
+                    .setReconnectDelay(Duration.ofMillis(100));
+            bus = new ClusterEventBus(props, new RevocationProperties().setShared(true), dataSourceProperties,
+                    objectMapper, cache, broker, store, new SimpleMeterRegistry());
+            bus.start();
+        }
+
+        void awaitListening() throws InterruptedException {
+            val deadline = System.nanoTime() + Duration.ofMillis(WAIT_MILLIS).toNanos();
+            while (bus.backendPid() == null && System.nanoTime() < deadline) {
+                Thread.sleep(20);
+            }
+            assertNotNull(bus.backendPid(), "шина событий не подписалась на канал");
+        }
+    }
+}
@@ -0,0 +1,118 @@
+package com.example.demo.service;
+
+import com.example.demo.utils.RefreshTokenPurgeProperties;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.zonky.test.db.AutoConfigureEmbeddedDatabase;
+import lombok.val;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Duration;
+
+import static io.zonky.test.db.AutoConfigureEmbeddedDatabase.DatabaseProvider.ZONKY;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@AutoConfigureEmbeddedDatabase(provider = ZONKY)
+@ActiveProfiles("test")
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@Import({RefreshTokenPurger.class, RefreshTokenPurgeProperties.class, RefreshTokenPurgerTest.Metrics.class})
+class RefreshTokenPurgerTest {
+    private static final int EXPIRED = 1_000;
+    private static final int REVOKED = 500;
+    private static final int LIVE = 1_000;
+
+    @Autowired
+    private RefreshTokenPurger purger;
+
+    @Autowired
+    private RefreshTokenPurgeProperties props;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void seed() {
+        props.setDryRun(false);
+        props.setBatchSize(200);
+        props.setMaxBatches(500);
+        props.setPause(Duration.ZERO);
+        meterRegistry.clear();
+        jdbcTemplate.update("""
+                INSERT INTO refresh_tokens (id, username, token_hash, expiry, revoked)
+                SELECT gen_random_uuid()::text, 'user' || g, encode(sha256(('token-' || g)::bytea), 'hex'),
+                       CASE WHEN g <= ? THEN now() - INTERVAL '1 day' ELSE now() + INTERVAL '7 days' END,
+                       g > ? AND g <= ?
+                FROM generate_series(1, ?) g
+                """, EXPIRED, EXPIRED, EXPIRED + REVOKED, EXPIRED + REVOKED + LIVE);
+    }
+
+    @AfterEach
+    void cleanUp() {
+        jdbcTemplate.update("DELETE FROM refresh_tokens");
+    }
+
+    @Test
+    @DisplayName("Purge deletes expired and revoked tokens in batches and keeps live ones")
+    void purgeDeletesInBatches() {
+        val purged = purger.purge();
+
+        assertEquals(EXPIRED + REVOKED, purged);
+        assertEquals(LIVE, count());
+        assertEquals(EXPIRED + REVOKED, meterRegistry.counter("refresh_tokens.purge.rows", "mode", "delete").count());
+        assertEquals(8, meterRegistry.counter("refresh_tokens.purge.batches", "mode", "delete").count());
+        assertEquals(1, meterRegistry.timer("refresh_tokens.purge.duration", "mode", "delete").count());
+    }
+
+    @Test
+    @DisplayName("Dry run counts candidates without deleting anything")
+    void dryRunDeletesNothing() {
+        props.setDryRun(true);
+
+        val purged = purger.purge();
+
+        assertEquals(EXPIRED + REVOKED, purged);
+        assertEquals(EXPIRED + REVOKED + LIVE, count());
+        assertEquals(EXPIRED + REVOKED, meterRegistry.counter("refresh_tokens.purge.rows", "mode", "dry-run").count());
+    }
+
+    @Test
+    @DisplayName("A single run stops after max-batches and the next run continues")
+    void runIsCappedByMaxBatches() {
+        props.setBatchSize(100);
+        props.setMaxBatches(3);
+
+        assertEquals(300, purger.purge());
+        assertEquals(EXPIRED + REVOKED + LIVE - 300, count());
+        assertEquals(300, purger.purge());
+    }
+
+    private int count() {
+        return jdbcTemplate.queryForObject("SELECT count(*) FROM refresh_tokens", Integer.class);
+    }
+
+    @TestConfiguration
+    static class Metrics {
+        @Bean
+        MeterRegistry meterRegistry() {
+            return new SimpleMeterRegistry();
+        }
+    }
+}
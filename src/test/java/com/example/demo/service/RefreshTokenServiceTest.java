@@ -0,0 +1,105 @@
+package com.example.demo.service;
+
+import com.example.demo.dto.VerifiedToken;
+import com.example.demo.model.RefreshToken;
+import com.example.demo.repository.RefreshTokenRepository;
+import com.example.demo.utils.JwtProperties;
+import com.example.demo.utils.TokenDigests;
+import lombok.val;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+class RefreshTokenServiceTest {
+    private RefreshTokenRepository repository;
+    private JwtService jwtService;
+    private RefreshTokenService service;
+
+    @BeforeEach
+    void setUp() {
+        repository = mock(RefreshTokenRepository.class);
+        jwtService = mock(JwtService.class);
+        service = new RefreshTokenService(repository, jwtService, new JwtProperties());
+        service.init();
+    }
+
+    @Test
+    @DisplayName("Malformed refresh token is rejected without touching the database")
+    void garbageSkipsRepository() {
+        when(jwtService.verifyRefresh("garbage")).thenReturn(Optional.empty());
+
+        assertTrue(service.findValid("garbage").isEmpty());
+        assertTrue(service.findValid("garbage").isEmpty());
+        assertTrue(service.verify("garbage").isEmpty());
+
+        verify(jwtService, times(1)).verifyRefresh("garbage");
+        verifyNoInteractions(repository);
+    }
+
+    @Test
+    @DisplayName("Well-formed token unknown to the database is looked up once")
+    void unknownTokenIsLookedUpOnce() {
+        when(jwtService.verifyRefresh("unknown")).thenReturn(Optional.of(refresh("alice")));
+        val digest = TokenDigests.sha256Hex("unknown");
+        when(repository.findByTokenHash(digest)).thenReturn(Optional.empty());
+
+        assertTrue(service.findValid("unknown").isEmpty());
+        assertTrue(service.findValid("unknown").isEmpty());
+
+        verify(repository, times(1)).findByTokenHash(digest);
+    }
+
+    @Test
+    @DisplayName("Stored token must belong to the subject of the JWT")
+    void subjectMustMatchRow() {
+        when(jwtService.verifyRefresh("alice-token")).thenReturn(Optional.of(refresh("alice")));
+        when(jwtService.verifyRefresh("bob-token")).thenReturn(Optional.of(refresh("bob")));
+        when(repository.findByTokenHash(TokenDigests.sha256Hex("alice-token"))).thenReturn(Optional.of(row("alice")));
+        when(repository.findByTokenHash(TokenDigests.sha256Hex("bob-token"))).thenReturn(Optional.of(row("alice")));
+
+        assertEquals("alice", service.findValid("alice-token").orElseThrow().getUsername());
+        assertTrue(service.findValid("bob-token").isEmpty());
+    }
+
+    @Test
+    @DisplayName("Revoked token is rejected locally on the next attempt")
+    void revokedTokenIsRejectedLocally() {
+        val digest = TokenDigests.sha256Hex("revoked");
+
+        service.revoke("revoked");
+
+        assertTrue(service.findValid("revoked").isEmpty());
+        verify(repository, times(1)).revokeByTokenHash(digest);
+        verify(repository, never()).findByTokenHash(digest);
+        verifyNoInteractions(jwtService);
+    }
+
+    private static VerifiedToken refresh(final String subject) {
+        return VerifiedToken.builder()
+                .subject(subject)
+                .type("refresh")
+                .expiration(Instant.now().plusSeconds(3600))
+                .build();
+    }
+
+    private static RefreshToken row(final String username) {
+        return RefreshToken.builder()
+                .id(username)
+                .username(username)
+                .expiry(Instant.now().plusSeconds(3600))
+                .revoked(false)
+                .build();
+    }
+}
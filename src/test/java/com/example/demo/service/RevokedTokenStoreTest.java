@@ -0,0 +1,126 @@
+package com.example.demo.service;
+
+import com.example.demo.repository.RevokedAccessTokenRepository;
+import com.example.demo.utils.RevocationProperties;
+import lombok.val;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+class RevokedTokenStoreTest {
+    private final MutableClock clock = new MutableClock(Instant.parse("2026-01-01T00:00:00Z"));
+
+    @Test
+    @DisplayName("Revoked digest is reported until it expires")
+    void revokeAndCheck() {
+        val repository = mock(RevokedAccessTokenRepository.class);
+        val store = new RevokedTokenStore(new RevocationProperties(), repository, event -> { }, clock);
+
+        store.revoke("a", clock.instant().plusSeconds(60));
+
+        assertTrue(store.isRevoked("a"));
+        assertFalse(store.isRevoked("b"));
+        clock.advance(Duration.ofSeconds(61));
+        assertFalse(store.isRevoked("a"));
+        verifyNoInteractions(repository);
+    }
+
+    @Test
+    @DisplayName("Without a shared table the cap never drops a live revocation")
+    void capKeepsLiveEntries() {
+        val props = new RevocationProperties().setMaxEntries(2);
+        val store = new RevokedTokenStore(props, mock(RevokedAccessTokenRepository.class), event -> { }, clock);
+        val now = clock.instant();
+
+        store.revoke("late", now.plusSeconds(300));
+        store.revoke("early", now.plusSeconds(60));
+        store.revoke("middle", now.plusSeconds(120));
+
+        assertEquals(3, store.size());
+        assertTrue(store.isRevoked("early"));
+        assertTrue(store.isRevoked("middle"));
+        assertTrue(store.isRevoked("late"));
+    }
+
+    @Test
+    @DisplayName("Over the cap a shared store checks the table for digests it did not keep")
+    void overflowFallsBackToSharedTable() {
+        val props = new RevocationProperties().setMaxEntries(2).setShared(true);
+        val repository = mock(RevokedAccessTokenRepository.class);
+        when(repository.existsByDigestAndExpiresAtAfter(eq("middle"), any())).thenReturn(true);
+        val store = new RevokedTokenStore(props, repository, event -> { }, clock);
+        val now = clock.instant();
+
+        store.revoke("late", now.plusSeconds(300));
+        store.revoke("early", now.plusSeconds(60));
+        store.revoke("middle", now.plusSeconds(120));
+
+        assertEquals(2, store.size());
+        assertTrue(store.isRevoked("early"));
+        assertTrue(store.isRevoked("middle"));
+        assertFalse(store.isRevoked("active"));
+        verify(repository).existsByDigestAndExpiresAtAfter("active", now);
+
+        clock.advance(Duration.ofSeconds(121));
+        assertFalse(store.isRevoked("other"));
+        verify(repository, never()).existsByDigestAndExpiresAtAfter(eq("other"), any());
+    }
+
+    @Test
+    @DisplayName("Sweep drops expired entries without a lookup")
+    void sweepDropsExpired() {
+        val store = new RevokedTokenStore(new RevocationProperties(), mock(RevokedAccessTokenRepository.class),
+                event -> { }, clock);
+        store.remember("soon", clock.instant().plusMillis(50));
+        store.remember("later", clock.instant().plusSeconds(60));
+
+        clock.advance(Duration.ofMillis(100));
+        store.sweep();
+
+        assertEquals(1, store.size());
+        assertTrue(store.isRevoked("later"));
+    }
+
+    private static final class MutableClock extends Clock {
+        private Instant now;
+
+        private MutableClock(final Instant now) {
+            this.now = now;
+        }
+
+        void advance(final Duration duration) {
+            now = now.plus(duration);
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(final ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return now;
+        }
+    }
+}
@@ -0,0 +1,101 @@
+package com.example.demo.service;
+
+import com.example.demo.dto.CalendarDay;
+import com.example.demo.exception.InvalidDateRangeException;
+import com.example.demo.mapper.TaskMapperImpl;
+import com.example.demo.utils.ExportProperties;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.zonky.test.db.AutoConfigureEmbeddedDatabase;
+import lombok.val;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
+import org.springframework.boot.autoconfigure.jackson.JacksonAutoConfiguration;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.io.ByteArrayOutputStream;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.UUID;
+
+import static io.zonky.test.db.AutoConfigureEmbeddedDatabase.DatabaseProvider.ZONKY;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@AutoConfigureEmbeddedDatabase(provider = ZONKY)
+@ActiveProfiles("test")
+@ImportAutoConfiguration(JacksonAutoConfiguration.class)
+@Import({TaskCalendarService.class, TaskMapperImpl.class, ExportProperties.class})
+class TaskCalendarServiceTest {
+    private static final LocalDate PAST = LocalDate.now().minusDays(3);
+    private static final LocalDate FUTURE = LocalDate.now().plusDays(3);
+
+    @Autowired
+    private TaskCalendarService taskCalendarService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @BeforeEach
+    void seed() {
+        insertTask("alice", PAST, false);
+        insertTask("alice", PAST, false);
+        insertTask("alice", PAST, true);
+        insertTask("alice", FUTURE, false);
+        insertTask("alice", FUTURE.plusDays(30), false);
+        insertTask("alice", null, false);
+        insertTask("bob", PAST, false);
+    }
+
+    @Test
+    @DisplayName("Counts are grouped per deadline within the range and scoped to the user")
+    void countsPerDay() {
+        val calendar = taskCalendarService.getCalendar("alice", PAST, FUTURE);
+
+        assertEquals(List.of(
+                CalendarDay.builder().date(PAST).total(3).completed(1).overdue(2).build(),
+                CalendarDay.builder().date(FUTURE).total(1).completed(0).overdue(0).build()
+        ), calendar.days());
+    }
+
+    @Test
+    @DisplayName("Expanded calendar streams counts and tasks of the whole range in one document")
+    void expanded() throws Exception {
+        val out = new ByteArrayOutputStream();
+
+        val written = taskCalendarService.writeExpandedCalendar("alice", PAST, FUTURE, out);
+
+        val document = objectMapper.readTree(out.toByteArray());
+        assertEquals(4, written);
+        assertEquals(2, document.get("days").size());
+        assertEquals(4, document.get("tasks").size());
+        assertEquals(PAST.toString(), document.get("tasks").get(0).get("deadline").asText());
+        assertEquals(FUTURE.toString(), document.get("tasks").get(3).get("deadline").asText());
+    }
+
+    @Test
+    @DisplayName("Inverted and oversized ranges are rejected")
+    void invalidRange() {
+        assertThrows(InvalidDateRangeException.class, () -> taskCalendarService.getCalendar("alice", FUTURE, PAST));
+        assertThrows(InvalidDateRangeException.class,
+                () -> taskCalendarService.getCalendar("alice", PAST, PAST.plusYears(2)));
+    }
+
+    private void insertTask(final String ldapUid, final LocalDate deadline, final boolean completed) {
+        jdbcTemplate.update("""
+                INSERT INTO todos (id, title, completed, created_at, deadline, ldap_uid)
+                VALUES (?, 'Task', ?, CURRENT_DATE, ?, ?)
+                """, UUID.randomUUID(), completed, deadline, ldapUid);
+    }
+}
@@ -0,0 +1,90 @@
+package com.example.demo.service;
+
+import com.example.demo.dto.TaskEvent;
+import com.example.demo.dto.TaskEventType;
+import com.example.demo.utils.TaskEventProperties;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.val;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class TaskEventBrokerTest {
+    private final CountDownLatch stalled = new CountDownLatch(1);
+    private ExecutorService senders;
+    private TaskEventBroker broker;
+
+    @BeforeEach
+    void setUp() {
+        senders = Executors.newSingleThreadExecutor();
+        senders.execute(() -> {
+            try {
+                stalled.await();
+            } catch (final InterruptedException thrown) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        val props = new TaskEventProperties()
+                .setBufferSize(2)
+                .setMaxSubscriptionsPerUser(2);
+        broker = new TaskEventBroker(props, new ObjectMapper().findAndRegisterModules(), senders);
+    }
+
+    @AfterEach
+    void tearDown() {
+        stalled.countDown();
+        broker.shutdown();
+    }
+
+    @Test
+    @DisplayName("Subscriber that does not drain its buffer is dropped, other users are unaffected")
+    void slowSubscriberIsDropped() {
+        broker.subscribe("alice");
+        broker.subscribe("bob");
+        assertEquals(2, broker.subscriberCount());
+
+        broker.publish(event("bob"));
+        assertEquals(2, broker.subscriberCount());
+
+        broker.publish(event("bob"));
+        assertEquals(1, broker.subscriberCount());
+
+        broker.publish(event("alice"));
+        assertEquals(1, broker.subscriberCount());
+    }
+
+    @Test
+    @DisplayName("Oldest subscriptions are closed above the per-user limit")
+    void oldestSubscriptionIsEvicted() {
+        broker.subscribe("alice");
+        broker.subscribe("alice");
+        broker.subscribe("alice");
+        broker.subscribe("bob");
+
+        assertEquals(3, broker.subscriberCount());
+    }
+
+    @Test
+    @DisplayName("Events for users without subscriptions are ignored")
+    void noSubscribers() {
+        broker.publish(event("alice"));
+
+        assertEquals(0, broker.subscriberCount());
+    }
+
+    private static TaskEvent event(final String username) {
+        return TaskEvent.builder()
+                .username(username)
+                .type(TaskEventType.DELETED)
+                .taskId(UUID.randomUUID())
+                .build();
+    }
+}
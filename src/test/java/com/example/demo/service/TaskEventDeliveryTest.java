@@ -0,0 +1,149 @@
+package com.example.demo.service;
+
+import com.example.demo.dto.TaskEvent;
+import com.example.demo.dto.TaskEventType;
+import com.example.demo.utils.TaskEventProperties;
+import io.zonky.test.db.AutoConfigureEmbeddedDatabase;
+import lombok.RequiredArgsConstructor;
+import lombok.val;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
+import org.springframework.boot.autoconfigure.jackson.JacksonAutoConfiguration;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.annotation.Import;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.UnsupportedEncodingException;
+import java.time.Duration;
+import java.util.UUID;
+
+import static io.zonky.test.db.AutoConfigureEmbeddedDatabase.DatabaseProvider.ZONKY;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@AutoConfigureEmbeddedDatabase(provider = ZONKY)
+@ActiveProfiles("test")
+@ImportAutoConfiguration(JacksonAutoConfiguration.class)
+@Import({TaskEventBroker.class, TaskEventProperties.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class TaskEventDeliveryTest {
+    private static final Duration WAIT = Duration.ofSeconds(5);
+
+    @Autowired
+    private TaskEventBroker broker;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private MockMvc mockMvc;
+    private TransactionTemplate transactionTemplate;
+
+    @BeforeEach
+    void setUp() {
+        mockMvc = MockMvcBuilders.standaloneSetup(new StreamController(broker)).build();
+        transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    @Test
+    @DisplayName("Event published inside a transaction reaches the subscribed stream only after commit")
+    void deliveredAfterCommit() throws Exception {
+        val response = subscribe();
+        val taskId = UUID.randomUUID();
+
+        transactionTemplate.executeWithoutResult(status -> {
+            eventPublisher.publishEvent(deleted("alice", taskId));
+            assertFalse(content(response).contains("event:deleted"));
+        });
+
+        assertTrue(await(response, taskId.toString()), () -> "событие не доставлено: " + content(response));
+        assertTrue(content(response).contains("event:deleted"));
+    }
+
+    @Test
+    @DisplayName("Rolled back and foreign events never reach the stream")
+    void rollbackAndForeignAreDropped() throws Exception {
+        val response = subscribe();
+        val rolledBack = UUID.randomUUID();
+        val foreign = UUID.randomUUID();
+        val delivered = UUID.randomUUID();
+
+        transactionTemplate.executeWithoutResult(status -> {
+            eventPublisher.publishEvent(deleted("alice", rolledBack));
+            status.setRollbackOnly();
+        });
+        transactionTemplate.executeWithoutResult(status -> eventPublisher.publishEvent(deleted("bob", foreign)));
+        transactionTemplate.executeWithoutResult(status -> eventPublisher.publishEvent(deleted("alice", delivered)));
+
+        assertTrue(await(response, delivered.toString()), () -> "событие не доставлено: " + content(response));
+        assertFalse(content(response).contains(rolledBack.toString()));
+        assertFalse(content(response).contains(foreign.toString()));
+    }
+
+    private MockHttpServletResponse subscribe() throws Exception {
+        return mockMvc.perform(get("/stream"))
+                .andExpect(request().asyncStarted())
+                .andReturn()
+                .getResponse();
+    }
+
+    private static TaskEvent deleted(final String username, final UUID taskId) {
+        return TaskEvent.builder()
+                .username(username)
+                .type(TaskEventType.DELETED)
+                .taskId(taskId)
+                .build();
+    }
+
+    private static boolean await(final MockHttpServletResponse response, final String expected)
+            throws InterruptedException {
+        val deadline = System.nanoTime() + WAIT.toNanos();
+        while (System.nanoTime() < deadline) {
+            if (content(response).contains(expected)) {
+                return true;
+            }
+            Thread.sleep(20);
+        }
+        return false;
+    }
+
+    private static String content(final MockHttpServletResponse response) {
+        try {
+            return response.getContentAsString();
+        } catch (final UnsupportedEncodingException thrown) {
+            throw new IllegalStateException(thrown);
+        }
+    }
+
+    @RestController
+    @RequiredArgsConstructor
+    static class StreamController {
+        private final TaskEventBroker broker;
+
+        @GetMapping("/stream")
+        SseEmitter stream() {
+            return broker.subscribe("alice");
+        }
+    }
+}
@@ -0,0 +1,110 @@
+package com.example.demo.service;
+
+import com.example.demo.mapper.TaskMapperImpl;
+import com.example.demo.utils.ExportProperties;
+import io.zonky.test.db.AutoConfigureEmbeddedDatabase;
+import jakarta.persistence.EntityManager;
+import lombok.val;
+import org.hibernate.Session;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
+import org.springframework.boot.autoconfigure.jackson.JacksonAutoConfiguration;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.io.OutputStream;
+
+import static io.zonky.test.db.AutoConfigureEmbeddedDatabase.DatabaseProvider.ZONKY;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@AutoConfigureEmbeddedDatabase(provider = ZONKY)
+@ActiveProfiles("test")
+@ImportAutoConfiguration(JacksonAutoConfiguration.class)
+@Import({TaskExportService.class, TaskMapperImpl.class, ExportProperties.class})
+class TaskExportServiceTest {
+    private static final int TASKS = 20_000;
+
+    @Autowired
+    private TaskExportService taskExportService;
+
+    @Autowired
+    private ExportProperties exportProperties;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @BeforeEach
+    void seed() {
+        jdbcTemplate.update("""
+                INSERT INTO todos (id, title, completed, created_at, deadline, ldap_uid)
+                SELECT gen_random_uuid(), 'Task ' || g, g % 2 = 0, DATE '2025-01-01' + (g % 30), NULL,
+                       CASE WHEN g % 10 = 0 THEN 'bob' ELSE 'alice' END
+                FROM generate_series(1, ?) g
+                """, TASKS);
+        jdbcTemplate.update("""
+                INSERT INTO subtasks (id, text, completed, task_id)
+                SELECT gen_random_uuid(), 'Subtask ' || n, false, t.id
+                FROM todos t CROSS JOIN generate_series(1, 2) n
+                """);
+    }
+
+    @Test
+    @DisplayName("User export streams every task while the persistence context stays within one chunk")
+    void userExportKeepsPersistenceContextBounded() throws Exception {
+        val out = new ContextWatchingOutputStream();
+
+        val written = taskExportService.exportUserTasks("alice", out);
+
+        val chunk = exportProperties.getChunkSize();
+        assertEquals(TASKS - TASKS / 10, written);
+        assertEquals(written, out.lines);
+        assertTrue(out.maxManagedEntities <= chunk * 3,
+                "в контексте одновременно было " + out.maxManagedEntities + " сущностей");
+    }
+
+    @Test
+    @DisplayName("Full export covers all users with the same bounded footprint")
+    void fullExportKeepsPersistenceContextBounded() throws Exception {
+        val out = new ContextWatchingOutputStream();
+
+        val written = taskExportService.exportAllTasks(out);
+
+        assertEquals(TASKS, written);
+        assertEquals(TASKS, out.lines);
+        assertTrue(out.maxManagedEntities <= exportProperties.getChunkSize() * 3,
+                "в контексте одновременно было " + out.maxManagedEntities + " сущностей");
+    }
+
+    private class ContextWatchingOutputStream extends OutputStream {
+        long lines;
+        int maxManagedEntities;
+
+        @Override
+        public void write(final int b) {
+            if (b == '\n') {
+                lines++;
+                val managed = entityManager.unwrap(Session.class).getStatistics().getEntityCount();
+                maxManagedEntities = Math.max(maxManagedEntities, managed);
+            }
+        }
+
+        @Override
+        public void write(final byte[] bytes, final int offset, final int length) {
+            for (int i = offset; i < offset + length; i++) {
+                write(bytes[i]);
+            }
+        }
+    }
+}
@@ -0,0 +1,134 @@
+package com.example.demo.service;
+
+import com.example.demo.dto.ImportFormat;
+import com.example.demo.dto.TaskEvent;
+import com.example.demo.dto.TaskEventType;
+import com.example.demo.dto.TaskImportError;
+import com.example.demo.utils.ImportProperties;
+import com.example.demo.utils.TaskCacheProperties;
+import io.zonky.test.db.AutoConfigureEmbeddedDatabase;
+import lombok.val;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
+import org.springframework.boot.autoconfigure.jackson.JacksonAutoConfiguration;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.event.ApplicationEvents;
+import org.springframework.test.context.event.RecordApplicationEvents;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static io.zonky.test.db.AutoConfigureEmbeddedDatabase.DatabaseProvider.ZONKY;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@AutoConfigureEmbeddedDatabase(provider = ZONKY)
+@ActiveProfiles("test")
+@ImportAutoConfiguration(JacksonAutoConfiguration.class)
+@Import({TaskImportService.class, TaskPageCache.class, ImportProperties.class, TaskCacheProperties.class})
+@RecordApplicationEvents
+class TaskImportServiceTest {
+
+    @Autowired
+    private TaskImportService taskImportService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private ApplicationEvents events;
+
+    @Test
+    @DisplayName("NDJSON import loads every valid line across several COPY chunks and reports rejected ones")
+    void importsNdjsonInChunks() throws Exception {
+        val lines = IntStream.rangeClosed(1, 12_000)
+                .mapToObj(i -> switch (i) {
+                    case 10 -> "{\"title\": \"\", \"subtasks\": []}";
+                    case 7_777 -> "{\"title\": \"broken\"";
+                    default -> "{\"title\": \"Task " + i + "\", \"deadline\": \"2025-03-01\", "
+                            + "\"subtasks\": [{\"text\": \"one\"}, {\"text\": \"two\"}]}";
+                })
+                .collect(Collectors.joining("\n"));
+
+        val result = taskImportService.importTasks("alice", ImportFormat.NDJSON, stream(lines));
+
+        assertEquals(11_998, result.imported());
+        assertNull(result.stoppedAtLine());
+        assertEquals(23_996, result.subtasks());
+        assertEquals(2, result.rejected());
+        assertEquals(List.of(10L, 7_777L), result.errors().stream().map(TaskImportError::line).toList());
+        assertEquals(11_998, count("SELECT count(*) FROM todos WHERE ldap_uid = 'alice'"));
+        assertEquals(23_996, count("SELECT count(*) FROM subtasks"));
+    }
+
+    @Test
+    @DisplayName("CSV import skips the header, keeps quoted and escaped text intact and rejects bad dates")
+    void importsCsv() throws Exception {
+        val csv = """
+                title,deadline,subtasks
+                "Buy milk, bread",2025-01-05,shop|pay
+                "Tab\there \\ backslash",,
+                Broken date,2025-13-40,x
+                Plain
+                """;
+
+        val result = taskImportService.importTasks("bob", ImportFormat.CSV, stream(csv));
+
+        assertEquals(3, result.imported());
+        assertEquals(2, result.subtasks());
+        assertEquals(1, result.rejected());
+        assertEquals(4, result.errors().getFirst().line());
+        assertEquals("Tab\there \\ backslash", jdbcTemplate.queryForObject(
+                "SELECT title FROM todos WHERE ldap_uid = 'bob' AND deadline IS NULL AND title LIKE 'Tab%'",
+                String.class));
+        assertEquals(2, count("""
+                SELECT count(*) FROM subtasks s JOIN todos t ON t.id = s.task_id
+                WHERE t.title = 'Buy milk, bread'
+                """));
+    }
+
+    @Test
+    @DisplayName("A chunk the database rejects stops the import, keeps committed chunks and reports the stop line")
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    void failingChunkStopsImport() throws Exception {
+        val lines = IntStream.rangeClosed(1, 8_000)
+                .mapToObj(i -> "{\"title\": \"" + (i == 6_000 ? "poison" : "Task " + i) + "\", \"subtasks\": []}")
+                .collect(Collectors.joining("\n"));
+        jdbcTemplate.execute("ALTER TABLE todos ADD CONSTRAINT todos_no_poison CHECK (title <> 'poison')");
+        try {
+            val result = taskImportService.importTasks("carol", ImportFormat.NDJSON, stream(lines));
+
+            assertEquals(5_000, result.imported());
+            assertEquals(5_001L, result.stoppedAtLine());
+            assertEquals(5_001L, result.errors().getLast().line());
+            assertEquals(5_000, count("SELECT count(*) FROM todos WHERE ldap_uid = 'carol'"));
+            assertEquals(List.of(TaskEventType.RESYNC),
+                    events.stream(TaskEvent.class).map(TaskEvent::type).toList());
+        } finally {
+            jdbcTemplate.execute("ALTER TABLE todos DROP CONSTRAINT todos_no_poison");
+            jdbcTemplate.update("DELETE FROM todos WHERE ldap_uid = 'carol'");
+            jdbcTemplate.update("DELETE FROM task_tombstones");
+        }
+    }
+
+    private long count(final String sql) {
+        return jdbcTemplate.queryForObject(sql, Long.class);
+    }
+
+    private static ByteArrayInputStream stream(final String content) {
+        return new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,182 @@
+package com.example.demo.service;
+
+import com.example.demo.dto.BatchOperationType;
+import com.example.demo.dto.SubtaskDto;
+import com.example.demo.dto.TaskBatchOperation;
+import com.example.demo.dto.TaskBatchResult;
+import com.example.demo.dto.TaskDto;
+import com.example.demo.dto.UpdateTaskDto;
+import com.example.demo.mapper.TaskMapperImpl;
+import com.example.demo.utils.TaskCacheProperties;
+import io.zonky.test.db.AutoConfigureEmbeddedDatabase;
+import jakarta.persistence.EntityManager;
+import lombok.val;
+import org.hibernate.SessionFactory;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
+import org.springframework.boot.autoconfigure.jackson.JacksonAutoConfiguration;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.IntStream;
+
+import static io.zonky.test.db.AutoConfigureEmbeddedDatabase.DatabaseProvider.ZONKY;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@AutoConfigureEmbeddedDatabase(provider = ZONKY)
+@ActiveProfiles("test")
+@ImportAutoConfiguration(JacksonAutoConfiguration.class)
+@Import({TaskService.class, TaskMapperImpl.class, TaskPageCache.class, TaskCacheProperties.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class TaskServiceBatchTest {
+    @Autowired
+    private TaskService taskService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @BeforeEach
+    void authenticate() {
+        SecurityContextHolder.getContext()
+                .setAuthentication(new UsernamePasswordAuthenticationToken("alice", null, List.of()));
+    }
+
+    @AfterEach
+    void cleanUp() {
+        SecurityContextHolder.clearContext();
+        jdbcTemplate.update("DELETE FROM subtasks");
+        jdbcTemplate.update("DELETE FROM todos");
+        jdbcTemplate.update("DELETE FROM task_tombstones");
+    }
+
+    @Test
+    @DisplayName("Create, update and delete are committed together, foreign and unknown ids are reported per operation")
+    void mixedBatch() {
+        val updated = insertTask("alice", "Before");
+        val deleted = insertTask("alice", "Doomed");
+        val foreign = insertTask("bob", "Foreign");
+        val unknown = UUID.randomUUID();
+
+        val results = taskService.applyBatch(List.of(
+                update(updated, "After"),
+                delete(deleted),
+                update(foreign, "Stolen"),
+                delete(unknown),
+                create("Created")));
+
+        assertEquals(List.of(200, 204, 403, 404, 201), results.stream().map(TaskBatchResult::status).toList());
+        assertEquals("After", title(updated));
+        assertEquals("Foreign", title(foreign));
+        assertEquals(0, count("SELECT count(*) FROM todos WHERE id = ?", deleted));
+        assertEquals(1, count("SELECT count(*) FROM todos WHERE id = ? AND ldap_uid = 'alice'", results.getLast().id()));
+    }
+
+    @Test
+    @DisplayName("A failing write rolls back every operation of the batch")
+    void failureRollsBackBatch() {
+        val updated = insertTask("alice", "Before");
+        val deleted = insertTask("alice", "Kept");
+
+        assertThrows(DataAccessException.class, () -> taskService.applyBatch(List.of(
+                update(updated, "After"),
+                delete(deleted),
+                create("x".repeat(300)))));
+
+        assertEquals("Before", title(updated));
+        assertEquals("Kept", title(deleted));
+        assertEquals(2, count("SELECT count(*) FROM todos WHERE ldap_uid = ?", "alice"));
+    }
+
+    @Test
+    @DisplayName("Writes are flushed in JDBC batches, so the statement count does not grow with the batch")
+    void writesAreBatched() {
+        val few = countStatements(() -> taskService.applyBatch(creates(5)));
+        val many = countStatements(() -> taskService.applyBatch(creates(40)));
+
+        assertEquals(few, many);
+        assertTrue(many <= 3, "ожидалось не больше трёх запросов, выполнено " + many);
+        assertEquals(45, count("SELECT count(*) FROM todos WHERE ldap_uid = ?", "alice"));
+        assertEquals(45, count("SELECT count(*) FROM subtasks"));
+    }
+
+    private static TaskBatchOperation create(final String title) {
+        return TaskBatchOperation.builder()
+                .op(BatchOperationType.CREATE)
+                .task(TaskDto.builder().title(title).subtasks(List.of()).build())
+                .build();
+    }
+
+    private static List<TaskBatchOperation> creates(final int count) {
+        return IntStream.range(0, count)
+                .mapToObj(index -> TaskBatchOperation.builder()
+                        .op(BatchOperationType.CREATE)
+                        .task(TaskDto.builder()
+                                .title("Task " + index)
+                                .subtasks(List.of(SubtaskDto.builder().text("Step " + index).build()))
+                                .build())
+                        .build())
+                .toList();
+    }
+
+    private static TaskBatchOperation update(final UUID id, final String title) {
+        return TaskBatchOperation.builder()
+                .op(BatchOperationType.UPDATE)
+                .id(id)
+                .update(UpdateTaskDto.builder().title(title).build())
+                .build();
+    }
+
+    private static TaskBatchOperation delete(final UUID id) {
+        return TaskBatchOperation.builder()
+                .op(BatchOperationType.DELETE)
+                .id(id)
+                .build();
+    }
+
+    private UUID insertTask(final String ldapUid, final String title) {
+        val id = UUID.randomUUID();
+        jdbcTemplate.update("""
+                INSERT INTO todos (id, title, completed, created_at, ldap_uid)
+                VALUES (?, ?, false, CURRENT_DATE, ?)
+                """, id, title, ldapUid);
+        return id;
+    }
+
+    private String title(final UUID id) {
+        return jdbcTemplate.queryForObject("SELECT title FROM todos WHERE id = ?", String.class, id);
+    }
+
+    private int count(final String sql, final Object... args) {
+        return jdbcTemplate.queryForObject(sql, Integer.class, args);
+    }
+
+    private long countStatements(final Runnable action) {
+        val statistics = entityManager.getEntityManagerFactory()
+                .unwrap(SessionFactory.class)
+                .getStatistics();
+        statistics.clear();
+        action.run();
+        return statistics.getPrepareStatementCount();
+    }
+}
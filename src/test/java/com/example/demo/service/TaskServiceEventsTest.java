@@ -0,0 +1,118 @@
+package com.example.demo.service;
+
+import com.example.demo.dto.PatchTaskDto;
+import com.example.demo.dto.TaskEvent;
+import com.example.demo.dto.TaskEventType;
+import com.example.demo.exception.InvalidTaskException;
+import com.example.demo.exception.TaskNotFoundException;
+import com.example.demo.mapper.TaskMapperImpl;
+import com.example.demo.model.Task;
+import com.example.demo.repository.TaskRepository;
+import com.example.demo.utils.TaskCacheProperties;
+import io.zonky.test.db.AutoConfigureEmbeddedDatabase;
+import lombok.val;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
+import org.springframework.boot.autoconfigure.jackson.JacksonAutoConfiguration;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.event.ApplicationEvents;
+import org.springframework.test.context.event.RecordApplicationEvents;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static io.zonky.test.db.AutoConfigureEmbeddedDatabase.DatabaseProvider.ZONKY;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@AutoConfigureEmbeddedDatabase(provider = ZONKY)
+@ActiveProfiles("test")
+@ImportAutoConfiguration(JacksonAutoConfiguration.class)
+@Import({TaskService.class, TaskMapperImpl.class, TaskPageCache.class, TaskCacheProperties.class})
+@RecordApplicationEvents
+class TaskServiceEventsTest {
+    @Autowired
+    private TaskService taskService;
+
+    @Autowired
+    private TaskRepository taskRepository;
+
+    @Autowired
+    private ApplicationEvents events;
+
+    @BeforeEach
+    void authenticate() {
+        SecurityContextHolder.getContext()
+                .setAuthentication(new UsernamePasswordAuthenticationToken("alice", null, List.of()));
+    }
+
+    @AfterEach
+    void clearAuthentication() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    @DisplayName("Deleting an own task removes it and publishes DELETED for the owner")
+    void deleteOwnTask() {
+        val id = save("alice");
+
+        taskService.deleteTask(id);
+
+        assertFalse(taskRepository.existsById(id));
+        val published = events.stream(TaskEvent.class).toList();
+        assertEquals(1, published.size());
+        assertEquals("alice", published.getFirst().username());
+        assertEquals(TaskEventType.DELETED, published.getFirst().type());
+        assertEquals(id, published.getFirst().taskId());
+    }
+
+    @Test
+    @DisplayName("Deleting a foreign or unknown task answers not found and publishes nothing")
+    void deleteForeignTask() {
+        val foreign = save("bob");
+
+        assertThrows(TaskNotFoundException.class, () -> taskService.deleteTask(foreign));
+        assertThrows(TaskNotFoundException.class, () -> taskService.deleteTask(UUID.randomUUID()));
+
+        assertTrue(taskRepository.existsById(foreign));
+        assertEquals(0, events.stream(TaskEvent.class).count());
+    }
+
+    @Test
+    @DisplayName("Patching a blank or too long title answers bad request and leaves the task untouched")
+    void patchRejectsInvalidTitle() {
+        val id = save("alice");
+
+        assertThrows(InvalidTaskException.class, () -> taskService.patchTask(id,
+                PatchTaskDto.builder().title(" ").build()));
+        assertThrows(InvalidTaskException.class, () -> taskService.patchTask(id,
+                PatchTaskDto.builder().title("x".repeat(256)).build()));
+
+        assertEquals("Task", taskRepository.findById(id).orElseThrow().getTitle());
+        assertEquals(0, events.stream(TaskEvent.class).count());
+    }
+
+    private UUID save(final String ldapUid) {
+        return taskRepository.saveAndFlush(Task.builder()
+                .title("Task")
+                .deadline(LocalDate.of(2025, 1, 1))
+                .ldapUid(ldapUid)
+                .subtasks(new ArrayList<>())
+                .build()).getId();
+    }
+}
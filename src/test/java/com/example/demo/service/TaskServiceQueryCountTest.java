@@ -0,0 +1,132 @@
+package com.example.demo.service;
+
+import com.example.demo.mapper.TaskMapperImpl;
+import com.example.demo.model.Subtask;
+import com.example.demo.model.Task;
+import com.example.demo.dto.TaskDto;
+import com.example.demo.repository.TaskRepository;
+import com.example.demo.utils.TaskCacheProperties;
+import io.zonky.test.db.AutoConfigureEmbeddedDatabase;
+import jakarta.persistence.EntityManager;
+import lombok.val;
+import org.hibernate.SessionFactory;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
+import org.springframework.boot.autoconfigure.jackson.JacksonAutoConfiguration;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.IntStream;
+
+import static io.zonky.test.db.AutoConfigureEmbeddedDatabase.DatabaseProvider.ZONKY;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@AutoConfigureEmbeddedDatabase(provider = ZONKY)
+@ActiveProfiles("test")
+@ImportAutoConfiguration(JacksonAutoConfiguration.class)
+@Import({TaskService.class, TaskMapperImpl.class, TaskPageCache.class, TaskCacheProperties.class})
+class TaskServiceQueryCountTest {
+
+    @Autowired
+    private TaskService taskService;
+
+    @Autowired
+    private TaskRepository taskRepository;
+
+    @Autowired
+    private TaskPageCache taskPageCache;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @BeforeEach
+    void authenticate() {
+        SecurityContextHolder.getContext()
+                .setAuthentication(new UsernamePasswordAuthenticationToken("alice", null, List.of()));
+    }
+
+    @AfterEach
+    void clearAuthentication() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    @DisplayName("Listing tasks runs the same number of statements for 5 and 80 tasks")
+    void listStatementCountIsConstant() {
+        seed(5);
+        val few = countStatements(() -> taskService.getUserTasks(null, 100));
+
+        seed(75);
+        val many = countStatements(() -> taskService.getUserTasks(null, 100));
+
+        assertEquals(few, many);
+        assertTrue(many <= 2, "ожидалось не больше двух запросов, выполнено " + many);
+    }
+
+    @Test
+    @DisplayName("Completed and by-date listings do not load subtasks per task")
+    void filteredListsAreBatched() {
+        seed(60);
+        val completed = countStatements(() -> taskService.getCompletedTasks(null, 100));
+        val byDate = countStatements(() -> taskService.getTasksByDate(LocalDate.of(2025, 1, 1), null, 100));
+
+        assertTrue(completed <= 2, "completed: " + completed);
+        assertTrue(byDate <= 2, "by date: " + byDate);
+    }
+
+    @Test
+    @DisplayName("Repeated listing is served from the cache until the user writes")
+    void repeatedListingHitsCacheUntilWrite() {
+        seed(10);
+        val first = taskService.getUserTasks(null, 50);
+
+        val cachedStatements = countStatements(() -> assertEquals(first, taskService.getUserTasks(null, 50)));
+        assertEquals(0, cachedStatements);
+
+        taskService.createTask(TaskDto.builder().title("Fresh").subtasks(List.of()).build());
+        val afterWrite = taskService.getUserTasks(null, 50);
+
+        assertNotEquals(first.etag(), afterWrite.etag());
+        assertEquals(11, afterWrite.page().items().size());
+    }
+
+    private void seed(final int count) {
+        IntStream.range(0, count).forEach(index -> taskRepository.save(Task.builder()
+                .title("Task " + index)
+                .completed(index % 2 == 0)
+                .deadline(LocalDate.of(2025, 1, 1))
+                .ldapUid("alice")
+                .subtasks(new ArrayList<>(List.of(
+                        Subtask.builder().text("First " + index).build(),
+                        Subtask.builder().text("Second " + index).build())))
+                .build()));
+        entityManager.flush();
+        taskPageCache.invalidate("alice");
+    }
+
+    private long countStatements(final Runnable action) {
+        entityManager.flush();
+        entityManager.clear();
+        val statistics = entityManager.getEntityManagerFactory()
+                .unwrap(SessionFactory.class)
+                .getStatistics();
+        statistics.clear();
+        action.run();
+        return statistics.getPrepareStatementCount();
+    }
+}
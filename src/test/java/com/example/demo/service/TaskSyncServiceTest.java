@@ -0,0 +1,173 @@
+package com.example.demo.service;
+
+import com.example.demo.dto.TaskResponse;
+import com.example.demo.exception.InvalidCursorException;
+import com.example.demo.exception.SyncTokenExpiredException;
+import com.example.demo.repository.TaskRepository;
+import com.example.demo.utils.SyncToken;
+import com.example.demo.utils.TaskSyncProperties;
+import io.zonky.test.db.AutoConfigureEmbeddedDatabase;
+import lombok.val;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+import static io.zonky.test.db.AutoConfigureEmbeddedDatabase.DatabaseProvider.ZONKY;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@AutoConfigureEmbeddedDatabase(provider = ZONKY)
+@ActiveProfiles("test")
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@Import({TaskSyncService.class, TaskSyncProperties.class})
+class TaskSyncServiceTest {
+    @Autowired
+    private TaskSyncService taskSyncService;
+
+    @Autowired
+    private TaskRepository taskRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TaskSyncProperties props;
+
+    @AfterEach
+    void cleanUp() {
+        props.setPageSize(new TaskSyncProperties().getPageSize());
+        jdbcTemplate.update("DELETE FROM subtasks");
+        jdbcTemplate.update("DELETE FROM todos");
+        jdbcTemplate.update("DELETE FROM task_tombstones");
+    }
+
+    @Test
+    @DisplayName("Delta contains updated tasks, tasks with changed subtasks and tombstones of deleted ones")
+    void deltaSinceToken() {
+        val updated = insertTask("alice", "Updated");
+        val withSubtask = insertTask("alice", "With subtask");
+        val untouched = insertTask("alice", "Untouched");
+        val deleted = insertTask("alice", "Deleted");
+        insertTask("bob", "Foreign");
+
+        val initial = taskSyncService.changesSince("alice", null);
+        assertEquals(Set.of(updated, withSubtask, untouched, deleted), ids(initial.changed()));
+        assertTrue(initial.deleted().isEmpty());
+
+        val quiet = taskSyncService.changesSince("alice", initial.next());
+        assertTrue(quiet.changed().isEmpty());
+        assertTrue(quiet.deleted().isEmpty());
+
+        jdbcTemplate.update("UPDATE todos SET completed = true WHERE id = ?", updated);
+        jdbcTemplate.update("INSERT INTO subtasks (id, text, completed, task_id) VALUES (?, 'Step', false, ?)",
+                UUID.randomUUID(), withSubtask);
+        jdbcTemplate.update("DELETE FROM todos WHERE id = ?", deleted);
+        jdbcTemplate.update("UPDATE todos SET title = 'Still foreign' WHERE ldap_uid = 'bob'");
+
+        val delta = taskSyncService.changesSince("alice", quiet.next());
+        assertEquals(Set.of(updated, withSubtask), ids(delta.changed()));
+        assertEquals(List.of(deleted), delta.deleted());
+        val subtasks = delta.changed().stream()
+                .filter(task -> task.id().equals(withSubtask))
+                .findFirst()
+                .orElseThrow()
+                .subtasks();
+        assertEquals(1, subtasks.size());
+
+        val next = taskSyncService.changesSince("alice", delta.next());
+        assertTrue(next.changed().isEmpty());
+        assertTrue(next.deleted().isEmpty());
+    }
+
+    @Test
+    @DisplayName("Initial sync is paged and the following delta covers changes made while paging")
+    void pagedInitialSync() {
+        props.setPageSize(2);
+        val all = new HashSet<UUID>();
+        for (int i = 0; i < 5; i++) {
+            all.add(insertTask("alice", "Task " + i));
+        }
+        insertTask("bob", "Foreign");
+
+        val first = taskSyncService.changesSince("alice", null);
+        assertEquals(2, first.changed().size());
+        assertTrue(first.hasMore());
+
+        val deleted = first.changed().getFirst().id();
+        jdbcTemplate.update("DELETE FROM todos WHERE id = ?", deleted);
+        val added = insertTask("alice", "Added while paging");
+
+        val seen = new HashSet<>(ids(first.changed()));
+        var page = first;
+        var pages = 1;
+        while (page.hasMore()) {
+            page = taskSyncService.changesSince("alice", page.next());
+            assertTrue(page.changed().size() <= 2);
+            assertTrue(page.deleted().isEmpty());
+            seen.addAll(ids(page.changed()));
+            pages++;
+        }
+        assertTrue(pages >= 3);
+        assertTrue(seen.containsAll(all));
+
+        val delta = taskSyncService.changesSince("alice", page.next());
+        assertTrue(ids(delta.changed()).contains(added));
+        assertEquals(List.of(deleted), delta.deleted());
+        assertFalse(delta.hasMore());
+    }
+
+    @Test
+    @DisplayName("Tokens older than the tombstone retention require a full resync")
+    void expiredToken() {
+        val stale = new SyncToken(1, Instant.now().minus(Duration.ofDays(31))).encode();
+
+        assertThrows(SyncTokenExpiredException.class, () -> taskSyncService.changesSince("alice", stale));
+        assertThrows(InvalidCursorException.class, () -> taskSyncService.changesSince("alice", "not-a-token"));
+    }
+
+    @Test
+    @DisplayName("Tombstones past retention are purged")
+    void purgeTombstones() {
+        val deleted = insertTask("alice", "Deleted");
+        jdbcTemplate.update("DELETE FROM todos WHERE id = ?", deleted);
+        jdbcTemplate.update("UPDATE task_tombstones SET deleted_at = now() - INTERVAL '40 days'");
+
+        taskSyncService.purgeTombstones();
+
+        assertEquals(0, jdbcTemplate.queryForObject("SELECT count(*) FROM task_tombstones", Integer.class));
+        assertTrue(taskRepository.findDeletedSince("alice", 0).isEmpty());
+    }
+
+    private UUID insertTask(final String ldapUid, final String title) {
+        val id = UUID.randomUUID();
+        jdbcTemplate.update("""
+                INSERT INTO todos (id, title, completed, created_at, ldap_uid)
+                VALUES (?, ?, false, CURRENT_DATE, ?)
+                """, id, title, ldapUid);
+        return id;
+    }
+
+    private static Set<UUID> ids(final List<TaskResponse> tasks) {
+        return tasks.stream().map(TaskResponse::id).collect(Collectors.toSet());
+    }
+}
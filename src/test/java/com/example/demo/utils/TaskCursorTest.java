@@ -0,0 +1,56 @@
+package com.example.demo.utils;
+
+import com.example.demo.exception.InvalidCursorException;
+import com.example.demo.model.Task;
+import lombok.val;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.Base64;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class TaskCursorTest {
+
+    @Test
+    @DisplayName("Encoded cursor decodes back to the same position and is URL safe")
+    void roundTrip() {
+        val cursor = new TaskCursor(LocalDate.of(2025, 1, 31), UUID.randomUUID());
+
+        val encoded = cursor.encode();
+
+        assertEquals(cursor, TaskCursor.decode(encoded));
+        assertFalse(encoded.contains("="));
+        assertFalse(encoded.contains("+"));
+        assertFalse(encoded.contains("/"));
+    }
+
+    @Test
+    @DisplayName("Cursor after a task points at its creation date and id")
+    void afterTask() {
+        val task = Task.builder()
+                .id(UUID.randomUUID())
+                .createdAt(LocalDate.of(2025, 2, 1))
+                .build();
+
+        assertEquals(new TaskCursor(task.getCreatedAt(), task.getId()), TaskCursor.after(task));
+    }
+
+    @Test
+    @DisplayName("Malformed cursors are rejected as invalid")
+    void rejectsMalformed() {
+        assertThrows(InvalidCursorException.class, () -> TaskCursor.decode("not base64!"));
+        assertThrows(InvalidCursorException.class, () -> TaskCursor.decode(encode("2025-01-01")));
+        assertThrows(InvalidCursorException.class, () -> TaskCursor.decode(encode("2025-13-01|" + UUID.randomUUID())));
+        assertThrows(InvalidCursorException.class, () -> TaskCursor.decode(encode("2025-01-01|not-a-uuid")));
+    }
+
+    private static String encode(final String raw) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+}